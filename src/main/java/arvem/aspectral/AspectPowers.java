@@ -1,5 +1,7 @@
 package arvem.aspectral;
 
+import arvem.aspectral.api.PlayerAdapterCache;
+import arvem.aspectral.api.StatIndices;
 import arvem.aspectral.component.PowerHolderComponent;
 import arvem.aspectral.powers.factory.PowerFactories;
 import arvem.aspectral.powers.factory.action.EntityActions;
@@ -12,6 +14,7 @@ import arvem.aspectral.component.PlayerAspectComponent;
 import arvem.aspectral.layer.LayerLoader;
 import arvem.aspectral.layer.LayerRegistry;
 import arvem.aspectral.persistence.PowerPersistenceManager;
+import arvem.aspectral.power.PowerLinker;
 import arvem.aspectral.power.PowerLoader;
 import arvem.aspectral.registry.PowerTypeRegistry;
 import arvem.aspectral.util.Scheduler;
@@ -41,9 +44,20 @@ public final class AspectPowers {
 
     public static final Scheduler SCHEDULER = new Scheduler();
 
+    // Data directories; the server runs from the 'run' directory, so these are relative to it
+    private static final Path POWERS_DIR = Path.of("plugins", "aspectral", "powers");
+    private static final Path ASPECTS_DIR = Path.of("plugins", "aspectral", "aspects");
+    private static final Path LAYERS_DIR = Path.of("plugins", "aspectral", "layers");
+
+    // Global tick counter, advanced once per server tick
+    private static volatile long currentTick = 0;
+
     // Power holder component for entity power management
     private final PowerHolderComponent.Manager componentManager;
 
+    // Reusable player adapters, one per player entity
+    private final PlayerAdapterCache adapterCache;
+
     // Player aspect component for storing player's chosen aspect
     private final PlayerAspectComponent.Manager playerAspectManager;
 
@@ -67,8 +81,15 @@ public final class AspectPowers {
     // Persistence manager for saving/loading powers
     private final PowerPersistenceManager persistenceManager;
 
+    // Binds references between loaded powers, and reports broken ones
+    private final PowerLinker powerLinker;
+
+    // Reloads changed data files while the server runs
+    private final DataReloader dataReloader;
+
     private AspectPowers(JavaPlugin pluginInstance) {
         this.componentManager = new PowerHolderComponent.Manager();
+        this.adapterCache = new PlayerAdapterCache();
         this.playerAspectManager = new PlayerAspectComponent.Manager();
         this.powerTypeRegistry = new PowerTypeRegistry();
         this.powerRegistry = arvem.aspectral.power.PowerRegistry.getInstance();
@@ -78,6 +99,9 @@ public final class AspectPowers {
         this.aspectLoader = new AspectLoader(aspectRegistry, powerTypeRegistry);
         this.layerLoader = new LayerLoader(layerRegistry);
         this.persistenceManager = new PowerPersistenceManager(pluginInstance);
+        this.powerLinker = new PowerLinker(powerRegistry, powerTypeRegistry, aspectRegistry, layerRegistry);
+        this.dataReloader = new DataReloader(powerLoader, aspectLoader, layerLoader, powerLinker,
+            POWERS_DIR, ASPECTS_DIR, LAYERS_DIR);
     }
 
     /**
@@ -105,12 +129,18 @@ public final class AspectPowers {
         instance.loadAspects(pluginInstance);
         instance.loadLayers(pluginInstance);
 
+        // Bind power references now that everything they can point to is loaded
+        instance.powerLinker.link();
+
         // Register event listeners
         instance.registerEventListeners(pluginInstance);
 
         // Register persistence events
         instance.persistenceManager.registerEvents(pluginInstance);
 
+        // Keep resolved stat indices in sync with stat asset reloads
+        StatIndices.register(pluginInstance);
+
         LOGGER.atInfo().log("AspectPowers initialized successfully!");
     }
 
@@ -120,7 +150,8 @@ public final class AspectPowers {
      */
     public static void shutdown() {
         if (instance != null) {
-            instance.persistenceManager.saveAllPlayers();
+            instance.dataReloader.stopWatching();
+            instance.persistenceManager.shutdown();
             LOGGER.atInfo().log("AspectPowers shutdown complete.");
         }
     }
@@ -152,8 +183,7 @@ public final class AspectPowers {
     @SuppressWarnings("unused")
     private void loadPowers(JavaPlugin pluginInstance) {
         // Load powers (power definitions) from data folder
-        // Server runs from the 'run' directory, so we use a relative path from there
-        Path powersDir = Path.of("plugins", "aspectral", "powers");
+        Path powersDir = POWERS_DIR;
         LOGGER.atInfo().log("PowerLoader: starting load from: %s", powersDir.toAbsolutePath());
         LOGGER.atInfo().log("Directory exists: %s", java.nio.file.Files.exists(powersDir));
         powerLoader.loadFromDirectory(powersDir);
@@ -163,8 +193,7 @@ public final class AspectPowers {
     @SuppressWarnings("unused")
     private void loadAspects(JavaPlugin pluginInstance) {
         // Load aspects from the plugin's data folder
-        // Server runs from the 'run' directory, so we use a relative path from there
-        Path aspectsDir = Path.of("plugins", "aspectral", "aspects");
+        Path aspectsDir = ASPECTS_DIR;
         LOGGER.atInfo().log("AspectLoader: starting load from: %s", aspectsDir.toAbsolutePath());
         LOGGER.atInfo().log("Directory exists: %s", java.nio.file.Files.exists(aspectsDir));
         aspectLoader.loadFromDirectory(aspectsDir);
@@ -175,7 +204,7 @@ public final class AspectPowers {
     @SuppressWarnings("unused")
     private void loadLayers(JavaPlugin pluginInstance) {
         // Load layers from data folder
-        Path layersDir = Path.of("plugins", "aspectral", "layers");
+        Path layersDir = LAYERS_DIR;
         LOGGER.atInfo().log("LayerLoader: starting load from: %s", layersDir.toAbsolutePath());
         LOGGER.atInfo().log("Directory exists: %s", java.nio.file.Files.exists(layersDir));
         layerLoader.loadFromDirectory(layersDir);
@@ -234,21 +263,39 @@ public final class AspectPowers {
      */
     public static void tick() {
         if (instance != null) {
+            currentTick++;
             SCHEDULER.tick();
             instance.componentManager.tickAll();
+            instance.persistenceManager.tick(currentTick);
         }
     }
 
+    /**
+     * Get the namespace of this mod's identifiers.
+     * Lowercase to match JSON convention.
+     */
+    public static String namespace() {
+        return Aspectral.getInstance().getManifest().getName().toLowerCase();
+    }
+
     /**
      * Create a namespaced identifier string.
      * Uses lowercase namespace to match JSON convention.
      */
     public static String identifier(String path) {
-        return Aspectral.getInstance().getManifest().getName().toLowerCase() + ":" + path;
+        return namespace() + ":" + path;
     }
 
     // Accessors
 
+    /**
+     * Get the global tick number.
+     * Monotonic for the lifetime of the server; used for scheduled wake-ups.
+     */
+    public static long getCurrentTick() {
+        return currentTick;
+    }
+
     public static AspectPowers getInstance() {
         return instance;
     }
@@ -277,6 +324,10 @@ public final class AspectPowers {
         return componentManager;
     }
 
+    public PlayerAdapterCache getAdapterCache() {
+        return adapterCache;
+    }
+
     public PlayerAspectComponent.Manager getPlayerAspectManager() {
         return playerAspectManager;
     }
@@ -284,6 +335,10 @@ public final class AspectPowers {
     public PowerPersistenceManager getPersistenceManager() {
         return persistenceManager;
     }
+
+    public DataReloader getDataReloader() {
+        return dataReloader;
+    }
 }
 
 
@@ -0,0 +1,180 @@
+package arvem.aspectral;
+
+import arvem.aspectral.api.HytalePlayerAdapter;
+import arvem.aspectral.aspect.Aspect;
+import arvem.aspectral.aspect.AspectLoader;
+import arvem.aspectral.component.PlayerAspectComponent;
+import arvem.aspectral.component.PowerHolderComponent;
+import arvem.aspectral.layer.Layer;
+import arvem.aspectral.layer.LayerLoader;
+import arvem.aspectral.power.PowerLinker;
+import arvem.aspectral.power.PowerLoader;
+import arvem.aspectral.powers.PowerDefinition;
+import arvem.aspectral.util.DataFileLoader;
+import arvem.aspectral.util.DataWatcher;
+import com.hypixel.hytale.logger.HytaleLogger;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Reloads power, aspect and layer files while the server runs.
+ * <p>
+ * While watching, every change to a data file re-parses only that file. The
+ * registries are updated in place, then every online entity is brought up to
+ * date in one pass per world, on that world's thread: powers whose definition
+ * changed are replaced, keeping their sources and runtime state (resource
+ * values, cooldowns), and players whose aspect changed gain or lose the powers
+ * it added or dropped. Entities loaded later simply get the new definitions.
+ * <p>
+ * Power references are bound again after every reload. Powers nested in other
+ * powers (such as the sub-powers of a multiple power) keep the definition they
+ * were created with until their parent is replaced.
+ */
+public class DataReloader {
+
+    private static final HytaleLogger LOGGER = HytaleLogger.forEnclosingClass();
+
+    private final PowerLoader powerLoader;
+    private final AspectLoader aspectLoader;
+    private final LayerLoader layerLoader;
+    private final PowerLinker powerLinker;
+    private final Path powersDir;
+    private final Path aspectsDir;
+    private final Path layersDir;
+
+    private DataWatcher watcher;
+
+    public DataReloader(PowerLoader powerLoader, AspectLoader aspectLoader, LayerLoader layerLoader, PowerLinker powerLinker,
+                        Path powersDir, Path aspectsDir, Path layersDir) {
+        this.powerLoader = powerLoader;
+        this.aspectLoader = aspectLoader;
+        this.layerLoader = layerLoader;
+        this.powerLinker = powerLinker;
+        this.powersDir = powersDir;
+        this.aspectsDir = aspectsDir;
+        this.layersDir = layersDir;
+    }
+
+    /**
+     * Start reloading data files as they change.
+     *
+     * @return False if already watching
+     */
+    public synchronized boolean startWatching() throws IOException {
+        if (watcher != null) {
+            return false;
+        }
+        // Same depths the loaders read: aspects may be grouped in subdirectories
+        Map<Path, Boolean> directories = new LinkedHashMap<>();
+        directories.put(powersDir, false);
+        directories.put(aspectsDir, true);
+        directories.put(layersDir, false);
+
+        watcher = new DataWatcher(directories, this::reload);
+        watcher.start();
+        LOGGER.atInfo().log("Watching data files for changes");
+        return true;
+    }
+
+    /**
+     * Stop reloading data files.
+     *
+     * @return False if not watching
+     */
+    public synchronized boolean stopWatching() {
+        if (watcher == null) {
+            return false;
+        }
+        try {
+            watcher.close();
+        } catch (IOException e) {
+            LOGGER.atWarning().log("Failed to stop watching data files: %s", e.getMessage());
+        }
+        watcher = null;
+        LOGGER.atInfo().log("Stopped watching data files");
+        return true;
+    }
+
+    public synchronized boolean isWatching() {
+        return watcher != null;
+    }
+
+    /**
+     * Reload changed data files and apply them to online entities.
+     *
+     * @param changes Changed data files per data directory
+     */
+    public void reload(Map<Path, Set<Path>> changes) {
+        // Same order as the initial load: aspects refer to powers, layers to aspects
+        List<DataFileLoader.Change<PowerDefinition>> powerChanges =
+            powerLoader.reloadFiles(powersDir, changes.getOrDefault(powersDir, Set.of()));
+        List<DataFileLoader.Change<Aspect>> aspectChanges =
+            aspectLoader.reloadFiles(aspectsDir, changes.getOrDefault(aspectsDir, Set.of()));
+        List<DataFileLoader.Change<Layer>> layerChanges =
+            layerLoader.reloadFiles(layersDir, changes.getOrDefault(layersDir, Set.of()));
+
+        // References anywhere may point at a replaced power, so bind them all again
+        powerLinker.link();
+
+        // Definitions the online powers were created from, and what replaces them
+        Map<String, PowerDefinition> previousDefinitions = new HashMap<>();
+        Map<PowerDefinition, PowerDefinition> replacedPowers = new HashMap<>();
+        for (DataFileLoader.Change<PowerDefinition> change : powerChanges) {
+            if (change.previous() != null) {
+                previousDefinitions.put(change.id(), change.previous());
+                replacedPowers.put(change.previous(), change.current());
+            }
+        }
+
+        // Power lists of the aspects that changed, as they were before
+        Map<String, List<String>> previousAspectPowers = new HashMap<>();
+        for (DataFileLoader.Change<Aspect> change : aspectChanges) {
+            List<String> previousPowerIds = change.previous() != null ? change.previous().getPowerIds() : List.of();
+            List<String> currentPowerIds = change.current() != null ? change.current().getPowerIds() : List.of();
+            if (!previousPowerIds.equals(currentPowerIds)) {
+                previousAspectPowers.put(change.id(), previousPowerIds);
+            }
+        }
+
+        if (!replacedPowers.isEmpty() || !previousAspectPowers.isEmpty()) {
+            AspectPowers.getInstance().getComponentManager().forEachInWorld(holder ->
+                update(holder, replacedPowers, previousDefinitions, previousAspectPowers));
+        }
+
+        LOGGER.atInfo().log("Reloaded %d power(s), %d aspect(s) and %d layer(s)",
+            powerChanges.size(), aspectChanges.size(), layerChanges.size());
+    }
+
+    /**
+     * Bring one entity's powers up to date. Runs on the entity's world thread.
+     */
+    private static void update(PowerHolderComponent holder,
+                               Map<PowerDefinition, PowerDefinition> replacedPowers,
+                               Map<String, PowerDefinition> previousDefinitions,
+                               Map<String, List<String>> previousAspectPowers) {
+        for (Map.Entry<PowerDefinition, PowerDefinition> entry : replacedPowers.entrySet()) {
+            PowerDefinition current = entry.getValue();
+            try {
+                holder.replacePower(entry.getKey().powerType, current != null ? () -> current.create(holder.getEntity()) : null);
+            } catch (Exception e) {
+                LOGGER.atWarning().log("Failed to replace power %s: %s", entry.getKey().powerType.getIdentifier(), e.getMessage());
+            }
+        }
+
+        if (holder.getEntity() instanceof HytalePlayerAdapter player) {
+            PlayerAspectComponent aspect = PlayerAspectComponent.get(player);
+            if (aspect != null && aspect.hasAspect()) {
+                List<String> previousPowerIds = previousAspectPowers.get(aspect.getAspectId());
+                if (previousPowerIds != null) {
+                    aspect.refreshAspect(previousPowerIds, previousDefinitions);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package arvem.aspectral.api;
+
+/**
+ * Compact per-tick copy of the entity state that conditions read most often.
+ * <p>
+ * Movement states are packed into a bitfield next to the health values, so a
+ * holder full of movement-gated powers reads the ECS components once per tick
+ * instead of once per condition. Movement, fire and health are captured
+ * separately, each on its first read in a tick, so a single read only pays for
+ * the component it needs.
+ */
+public final class EntitySnapshot {
+
+    public static final int SNEAKING = 1;
+    public static final int SPRINTING = 1 << 1;
+    public static final int SWIMMING = 1 << 2;
+    public static final int ON_GROUND = 1 << 3;
+    public static final int IN_WATER = 1 << 4;
+    public static final int FLYING = 1 << 5;
+    public static final int GLIDING = 1 << 6;
+    public static final int CLIMBING = 1 << 7;
+    public static final int FALLING = 1 << 8;
+    public static final int JUMPING = 1 << 9;
+    public static final int SLEEPING = 1 << 10;
+    public static final int ROLLING = 1 << 11;
+    public static final int SITTING = 1 << 12;
+    public static final int MOUNTING = 1 << 13;
+    public static final int ON_FIRE = 1 << 14;
+
+    // Movement state bits combined with the fire bit
+    static final int MOVEMENT_FLAGS = ON_FIRE - 1;
+
+    int flags;
+    float health;
+    float maxHealth;
+
+    // Tick each part was captured in, or -1 if it must be recaptured
+    long movementTick = -1;
+    long fireTick = -1;
+    long healthTick = -1;
+
+    EntitySnapshot() {
+    }
+
+    /**
+     * Check if all the given flags are set.
+     */
+    public boolean is(int flag) {
+        return (flags & flag) == flag;
+    }
+
+    /**
+     * Get all flags as a bitfield.
+     */
+    public int getFlags() {
+        return flags;
+    }
+
+    public float getHealth() {
+        return health;
+    }
+
+    public float getMaxHealth() {
+        return maxHealth;
+    }
+
+    /**
+     * Get the tick this snapshot was last captured in, or -1 if any part is stale.
+     */
+    public long getTick() {
+        return movementTick == fireTick && fireTick == healthTick ? movementTick : -1;
+    }
+}
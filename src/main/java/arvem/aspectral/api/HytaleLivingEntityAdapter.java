@@ -1,5 +1,6 @@
 package arvem.aspectral.api;
 
+import arvem.aspectral.AspectPowers;
 import com.hypixel.hytale.component.Ref;
 import com.hypixel.hytale.component.Store;
 import com.hypixel.hytale.protocol.MovementStates;
@@ -8,6 +9,7 @@ import com.hypixel.hytale.server.core.entity.movement.MovementStatesComponent;
 import com.hypixel.hytale.server.core.modules.entity.component.TransformComponent;
 import com.hypixel.hytale.server.core.modules.entitystats.EntityStatMap;
 import com.hypixel.hytale.server.core.modules.physics.component.Velocity;
+import com.hypixel.hytale.server.core.universe.world.World;
 import com.hypixel.hytale.server.core.universe.world.storage.EntityStore;
 
 import javax.annotation.Nonnull;
@@ -22,9 +24,13 @@ import javax.annotation.Nullable;
  */
 public class HytaleLivingEntityAdapter implements LivingEntity {
 
-    private final com.hypixel.hytale.server.core.entity.LivingEntity entity;
-    private final Ref<EntityStore> entityRef;
-    private final Store<EntityStore> store;
+    // Not final: an entity that changes worlds gets a new ref in the new world's store
+    private volatile com.hypixel.hytale.server.core.entity.LivingEntity entity;
+    private volatile Ref<EntityStore> entityRef;
+    private volatile Store<EntityStore> store;
+
+    // Reused every tick; see getSnapshot()
+    private final EntitySnapshot snapshot = new EntitySnapshot();
 
     /**
      * Create an adapter for a Hytale LivingEntity.
@@ -66,6 +72,43 @@ public class HytaleLivingEntityAdapter implements LivingEntity {
         return store;
     }
 
+    /**
+     * Get the world this entity currently lives in.
+     */
+    @Nullable
+    public World getWorld() {
+        return store.getExternalData().getWorld();
+    }
+
+    /**
+     * Point this adapter at a new entity reference, e.g. after the entity moved to another world.
+     * Powers keep their adapter, so rebinding it moves them along with the entity.
+     *
+     * @param entity The Hytale LivingEntity in its new store
+     * @param entityRef The new entity reference
+     * @param store The new entity store
+     */
+    protected void rebind(
+            @Nonnull com.hypixel.hytale.server.core.entity.LivingEntity entity,
+            @Nonnull Ref<EntityStore> entityRef,
+            @Nonnull Store<EntityStore> store) {
+        this.entity = entity;
+        this.entityRef = entityRef;
+        this.store = store;
+        invalidateSnapshot();
+    }
+
+    /**
+     * Re-resolve the entity reference if it is no longer current.
+     * Non-player entities cannot be tracked across worlds, so this does nothing by default.
+     * Safe to call from any thread; the rebind itself may happen later on the entity's new world thread.
+     *
+     * @return True if a rebind to a new reference was scheduled
+     */
+    public boolean refresh() {
+        return false;
+    }
+
     // ========================================
     // LivingEntity Interface Implementation
     // ========================================
@@ -76,73 +119,54 @@ public class HytaleLivingEntityAdapter implements LivingEntity {
     }
 
     @Override
-    @SuppressWarnings("deprecation")
     public float getHealth() {
-        EntityStatMap statMap = store.getComponent(entityRef, EntityStatMap.getComponentType());
-        if (statMap != null) {
-            // Health is typically the first stat or "Health" stat
-            var healthStat = statMap.get("Health");
-            if (healthStat != null) {
-                return healthStat.get();
-            }
-        }
-        return 0f;
+        return captureHealth().health;
     }
 
     @Override
-    @SuppressWarnings("deprecation")
     public void setHealth(float health) {
         EntityStatMap statMap = store.getComponent(entityRef, EntityStatMap.getComponentType());
-        if (statMap != null) {
-            var healthStat = statMap.get("Health");
-            if (healthStat != null) {
-                statMap.setStatValue(healthStat.getIndex(), health);
-            }
+        int index = StatIndices.health();
+        if (statMap != null && index != StatIndices.MISSING) {
+            statMap.setStatValue(index, health);
+            invalidateHealth();
         }
     }
 
     @Override
     public void heal(float amount) {
         EntityStatMap statMap = store.getComponent(entityRef, EntityStatMap.getComponentType());
-        if (statMap != null) {
-            @SuppressWarnings("deprecation")
-            var healthStat = statMap.get("Health");
-            if (healthStat != null) {
-                statMap.addStatValue(healthStat.getIndex(), amount);
-            }
+        int index = StatIndices.health();
+        if (statMap != null && index != StatIndices.MISSING) {
+            statMap.addStatValue(index, amount);
+            invalidateHealth();
         }
     }
 
     /**
      * Get the maximum health of this entity.
      */
-    @SuppressWarnings("deprecation")
     public float getMaxHealth() {
-        EntityStatMap statMap = store.getComponent(entityRef, EntityStatMap.getComponentType());
-        if (statMap != null) {
-            var healthStat = statMap.get("Health");
-            if (healthStat != null) {
-                return healthStat.getMax();
-            }
-        }
-        return 20f; // Default max health
+        return captureHealth().maxHealth;
     }
 
     @Override
     public void damage(float amount) {
         // Use negative amount to reduce health
         EntityStatMap statMap = store.getComponent(entityRef, EntityStatMap.getComponentType());
-        if (statMap != null) {
-            @SuppressWarnings("deprecation")
-            var healthStat = statMap.get("Health");
-            if (healthStat != null) {
-                statMap.addStatValue(healthStat.getIndex(), -amount);
-            }
+        int index = StatIndices.health();
+        if (statMap != null && index != StatIndices.MISSING) {
+            statMap.addStatValue(index, -amount);
+            invalidateHealth();
         }
     }
 
     @Override
     public boolean isOnFire() {
+        return captureFire().is(EntitySnapshot.ON_FIRE);
+    }
+
+    private boolean readOnFire() {
         EffectControllerComponent effectController = store.getComponent(entityRef, EffectControllerComponent.getComponentType());
         if (effectController != null) {
             // Check for fire-related effects
@@ -172,32 +196,27 @@ public class HytaleLivingEntityAdapter implements LivingEntity {
 
     @Override
     public boolean isSneaking() {
-        MovementStates states = getMovementStates();
-        return states != null && states.crouching;
+        return captureMovement().is(EntitySnapshot.SNEAKING);
     }
 
     @Override
     public boolean isSprinting() {
-        MovementStates states = getMovementStates();
-        return states != null && states.sprinting;
+        return captureMovement().is(EntitySnapshot.SPRINTING);
     }
 
     @Override
     public boolean isSwimming() {
-        MovementStates states = getMovementStates();
-        return states != null && states.swimming;
+        return captureMovement().is(EntitySnapshot.SWIMMING);
     }
 
     @Override
     public boolean isOnGround() {
-        MovementStates states = getMovementStates();
-        return states != null && states.onGround;
+        return captureMovement().is(EntitySnapshot.ON_GROUND);
     }
 
     @Override
     public boolean isInWater() {
-        MovementStates states = getMovementStates();
-        return states != null && states.inFluid;
+        return captureMovement().is(EntitySnapshot.IN_WATER);
     }
 
     @Override
@@ -219,6 +238,106 @@ public class HytaleLivingEntityAdapter implements LivingEntity {
         }
     }
 
+    // ========================================
+    // Snapshot
+    // ========================================
+
+    /**
+     * Get the state snapshot for the current tick, capturing whatever is not captured yet.
+     * Movement, health and fire state read through this, so every condition
+     * evaluated in the same tick shares one set of component reads. Single
+     * getters such as {@link #getHealth()} only capture the part they read.
+     */
+    @Nonnull
+    public EntitySnapshot getSnapshot() {
+        captureMovement();
+        captureFire();
+        return captureHealth();
+    }
+
+    /**
+     * Drop the current snapshot so the next read captures fresh state.
+     */
+    public void invalidateSnapshot() {
+        snapshot.movementTick = -1;
+        snapshot.fireTick = -1;
+        snapshot.healthTick = -1;
+    }
+
+    /**
+     * Drop the captured health, e.g. when the game changed it mid-tick in a damage event.
+     */
+    public void invalidateHealth() {
+        snapshot.healthTick = -1;
+    }
+
+    // Before the first server tick there is no tick boundary to cache against
+    private static boolean isStale(long capturedTick, long tick) {
+        return capturedTick != tick || tick == 0;
+    }
+
+    private EntitySnapshot captureMovement() {
+        long tick = AspectPowers.getCurrentTick();
+        if (!isStale(snapshot.movementTick, tick)) {
+            return snapshot;
+        }
+        int flags = 0;
+        MovementStates states = getMovementStates();
+        if (states != null) {
+            if (states.crouching) flags |= EntitySnapshot.SNEAKING;
+            if (states.sprinting) flags |= EntitySnapshot.SPRINTING;
+            if (states.swimming) flags |= EntitySnapshot.SWIMMING;
+            if (states.onGround) flags |= EntitySnapshot.ON_GROUND;
+            if (states.inFluid) flags |= EntitySnapshot.IN_WATER;
+            if (states.flying) flags |= EntitySnapshot.FLYING;
+            if (states.gliding) flags |= EntitySnapshot.GLIDING;
+            if (states.climbing) flags |= EntitySnapshot.CLIMBING;
+            if (states.falling) flags |= EntitySnapshot.FALLING;
+            if (states.jumping) flags |= EntitySnapshot.JUMPING;
+            if (states.sleeping) flags |= EntitySnapshot.SLEEPING;
+            if (states.rolling) flags |= EntitySnapshot.ROLLING;
+            if (states.sitting) flags |= EntitySnapshot.SITTING;
+            if (states.mounting) flags |= EntitySnapshot.MOUNTING;
+        }
+        snapshot.flags = (snapshot.flags & ~EntitySnapshot.MOVEMENT_FLAGS) | flags;
+        snapshot.movementTick = tick;
+        return snapshot;
+    }
+
+    private EntitySnapshot captureFire() {
+        long tick = AspectPowers.getCurrentTick();
+        if (!isStale(snapshot.fireTick, tick)) {
+            return snapshot;
+        }
+        snapshot.flags = readOnFire()
+            ? snapshot.flags | EntitySnapshot.ON_FIRE
+            : snapshot.flags & ~EntitySnapshot.ON_FIRE;
+        snapshot.fireTick = tick;
+        return snapshot;
+    }
+
+    private EntitySnapshot captureHealth() {
+        long tick = AspectPowers.getCurrentTick();
+        if (!isStale(snapshot.healthTick, tick)) {
+            return snapshot;
+        }
+        float health = 0f;
+        float maxHealth = 20f; // Default max health
+        EntityStatMap statMap = store.getComponent(entityRef, EntityStatMap.getComponentType());
+        int index = StatIndices.health();
+        if (statMap != null && index != StatIndices.MISSING) {
+            var healthStat = statMap.get(index);
+            if (healthStat != null) {
+                health = healthStat.get();
+                maxHealth = healthStat.getMax();
+            }
+        }
+        snapshot.health = health;
+        snapshot.maxHealth = maxHealth;
+        snapshot.healthTick = tick;
+        return snapshot;
+    }
+
     // ========================================
     // Helper Methods
     // ========================================
@@ -268,72 +387,63 @@ public class HytaleLivingEntityAdapter implements LivingEntity {
      * Check if this entity is flying.
      */
     public boolean isFlying() {
-        MovementStates states = getMovementStates();
-        return states != null && states.flying;
+        return captureMovement().is(EntitySnapshot.FLYING);
     }
 
     /**
      * Check if this entity is gliding.
      */
     public boolean isGliding() {
-        MovementStates states = getMovementStates();
-        return states != null && states.gliding;
+        return captureMovement().is(EntitySnapshot.GLIDING);
     }
 
     /**
      * Check if this entity is climbing.
      */
     public boolean isClimbing() {
-        MovementStates states = getMovementStates();
-        return states != null && states.climbing;
+        return captureMovement().is(EntitySnapshot.CLIMBING);
     }
 
     /**
      * Check if this entity is falling.
      */
     public boolean isFalling() {
-        MovementStates states = getMovementStates();
-        return states != null && states.falling;
+        return captureMovement().is(EntitySnapshot.FALLING);
     }
 
     /**
      * Check if this entity is jumping.
      */
     public boolean isJumping() {
-        MovementStates states = getMovementStates();
-        return states != null && states.jumping;
+        return captureMovement().is(EntitySnapshot.JUMPING);
     }
 
     /**
      * Check if this entity is sleeping.
      */
     public boolean isSleeping() {
-        MovementStates states = getMovementStates();
-        return states != null && states.sleeping;
+        return captureMovement().is(EntitySnapshot.SLEEPING);
     }
 
     /**
      * Check if this entity is rolling.
      */
     public boolean isRolling() {
-        MovementStates states = getMovementStates();
-        return states != null && states.rolling;
+        return captureMovement().is(EntitySnapshot.ROLLING);
     }
 
     /**
      * Check if this entity is sitting.
      */
     public boolean isSitting() {
-        MovementStates states = getMovementStates();
-        return states != null && states.sitting;
+        return captureMovement().is(EntitySnapshot.SITTING);
     }
 
     /**
      * Check if this entity is mounted on something.
      */
     public boolean isMounting() {
-        MovementStates states = getMovementStates();
-        return states != null && states.mounting;
+        return captureMovement().is(EntitySnapshot.MOUNTING);
     }
 
     @Override
@@ -6,6 +6,7 @@ import com.hypixel.hytale.protocol.GameMode;
 import com.hypixel.hytale.server.core.Message;
 import com.hypixel.hytale.server.core.entity.entities.Player;
 import com.hypixel.hytale.server.core.universe.PlayerRef;
+import com.hypixel.hytale.server.core.universe.world.World;
 import com.hypixel.hytale.server.core.universe.world.storage.EntityStore;
 
 import javax.annotation.Nonnull;
@@ -21,9 +22,12 @@ import java.util.UUID;
  */
 public class HytalePlayerAdapter extends HytaleLivingEntityAdapter {
 
-    private final Player player;
+    private volatile Player player;
     private final PlayerRef playerRef;
 
+    // The reference a rebind was handed to the new world's thread for, until it ran
+    private volatile Ref<EntityStore> pendingRef;
+
     /**
      * Create an adapter for a Hytale Player.
      *
@@ -74,6 +78,48 @@ public class HytalePlayerAdapter extends HytaleLivingEntityAdapter {
         return getEntityRef();
     }
 
+    /**
+     * Follow the player to their current entity reference.
+     * The PlayerRef outlives world changes, while the entity ref and store do not.
+     * <p>
+     * The new store may only be read on its own world's thread, so the rebind is
+     * handed to that thread; until it has run the adapter keeps its old reference.
+     *
+     * @return True if a rebind to a new reference was scheduled
+     */
+    @Override
+    public boolean refresh() {
+        Ref<EntityStore> current = playerRef.getReference();
+        if (current == null || !current.isValid() || current == getEntityRef() || current == pendingRef) {
+            return false;
+        }
+        Store<EntityStore> currentStore = current.getStore();
+        World world = currentStore.getExternalData().getWorld();
+        if (world == null) {
+            return false;
+        }
+        pendingRef = current;
+        try {
+            world.execute(() -> {
+                try {
+                    if (current.isValid() && playerRef.getReference() == current) {
+                        Player currentPlayer = currentStore.getComponent(current, Player.getComponentType());
+                        if (currentPlayer != null) {
+                            this.player = currentPlayer;
+                            rebind(currentPlayer, current, currentStore);
+                        }
+                    }
+                } finally {
+                    pendingRef = null;
+                }
+            });
+        } catch (Exception e) {
+            pendingRef = null;
+            return false;
+        }
+        return true;
+    }
+
     /**
      * Get the player's display name.
      */
@@ -0,0 +1,74 @@
+package arvem.aspectral.api;
+
+import com.hypixel.hytale.component.Ref;
+import com.hypixel.hytale.component.Store;
+import com.hypixel.hytale.server.core.entity.entities.Player;
+import com.hypixel.hytale.server.core.universe.PlayerRef;
+import com.hypixel.hytale.server.core.universe.world.storage.EntityStore;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Cache of player adapters keyed by entity reference.
+ * <p>
+ * An adapter is created the first time a player entity is seen and reused until
+ * the entity goes away, so repeated lookups for the same player allocate nothing.
+ * Entries are dropped when the player disconnects, and stale entries left behind by
+ * a world change are dropped as soon as their reference turns invalid.
+ */
+public class PlayerAdapterCache {
+
+    private final Map<Ref<EntityStore>, HytalePlayerAdapter> adapters = new ConcurrentHashMap<>();
+
+    /**
+     * Get the adapter for a player entity, creating it on first use.
+     */
+    @Nonnull
+    public HytalePlayerAdapter get(
+            @Nonnull Player player,
+            @Nonnull PlayerRef playerRef,
+            @Nonnull Ref<EntityStore> ref,
+            @Nonnull Store<EntityStore> store) {
+        HytalePlayerAdapter adapter = adapters.get(ref);
+        if (adapter != null && adapter.getEntityRef() == ref) {
+            return adapter;
+        }
+        // Missing, or rebound to another ref since it was cached
+        return adapters.compute(ref, (key, existing) ->
+            existing != null && existing.getEntityRef() == key
+                ? existing
+                : new HytalePlayerAdapter(player, playerRef, key, store));
+    }
+
+    /**
+     * Get the cached adapter for an entity reference, or null if none was created yet.
+     */
+    @Nullable
+    public HytalePlayerAdapter getIfPresent(@Nonnull Ref<EntityStore> ref) {
+        return adapters.get(ref);
+    }
+
+    /**
+     * Drop every adapter belonging to a player (e.g. on disconnect).
+     */
+    public void evict(@Nonnull PlayerRef playerRef) {
+        adapters.values().removeIf(adapter -> adapter.getPlayerRef() == playerRef);
+    }
+
+    /**
+     * Drop adapters whose entity reference is no longer valid.
+     */
+    public void evictInvalid() {
+        adapters.keySet().removeIf(ref -> !ref.isValid());
+    }
+
+    /**
+     * Get the number of cached adapters.
+     */
+    public int size() {
+        return adapters.size();
+    }
+}
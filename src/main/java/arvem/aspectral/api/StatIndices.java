@@ -0,0 +1,100 @@
+package arvem.aspectral.api;
+
+import com.hypixel.hytale.assetstore.event.LoadedAssetsEvent;
+import com.hypixel.hytale.logger.HytaleLogger;
+import com.hypixel.hytale.server.core.modules.entitystats.asset.EntityStatType;
+import com.hypixel.hytale.server.core.plugin.JavaPlugin;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Process-wide table of entity stat indices.
+ * <p>
+ * Stat names are resolved to their asset index once and then read as plain ints,
+ * so hot paths like {@link HytaleLivingEntityAdapter#getHealth()} never hash a
+ * stat name. The table is cleared whenever the stat assets are (re)loaded; callers
+ * that keep an index of their own should compare {@link #getGeneration()} to
+ * notice that.
+ */
+public final class StatIndices {
+
+    private static final HytaleLogger LOGGER = HytaleLogger.forEnclosingClass();
+
+    /**
+     * Returned for stats that do not exist.
+     */
+    public static final int MISSING = -1;
+
+    private static final int UNRESOLVED = -2;
+
+    public static final String HEALTH_NAME = "Health";
+
+    private static final Map<String, Integer> byName = new ConcurrentHashMap<>();
+    private static volatile int health = UNRESOLVED;
+    private static volatile int generation = 0;
+
+    private StatIndices() {
+    }
+
+    /**
+     * Listen for stat asset reloads so the table never hands out stale indices.
+     */
+    public static void register(JavaPlugin plugin) {
+        plugin.getEventRegistry().register(LoadedAssetsEvent.class, EntityStatType.class,
+            event -> invalidate());
+    }
+
+    /**
+     * Get the index of the health stat, or {@link #MISSING}.
+     */
+    public static int health() {
+        int index = health;
+        if (index == UNRESOLVED) {
+            index = indexOf(HEALTH_NAME);
+            health = index;
+        }
+        return index;
+    }
+
+    /**
+     * Get the index of a stat by name, or {@link #MISSING}.
+     */
+    public static int indexOf(String name) {
+        Integer index = byName.get(name);
+        if (index == null) {
+            index = lookup(name);
+            // Missing stats are not cached, they may appear with the next asset load
+            if (index != MISSING) {
+                byName.put(name, index);
+            }
+        }
+        return index;
+    }
+
+    /**
+     * Get the current table generation. Changes every time the table is invalidated.
+     */
+    public static int getGeneration() {
+        return generation;
+    }
+
+    /**
+     * Drop all resolved indices.
+     */
+    public static void invalidate() {
+        byName.clear();
+        health = UNRESOLVED;
+        generation++;
+        LOGGER.atFine().log("Entity stat indices invalidated (generation %d)", generation);
+    }
+
+    private static int lookup(String name) {
+        var assetMap = EntityStatType.getAssetMap();
+        if (assetMap == null) {
+            return MISSING;
+        }
+        int index = assetMap.getIndex(name);
+        return index >= 0 ? index : MISSING;
+    }
+}
@@ -72,7 +72,7 @@ public class Aspect {
             }
 
             try {
-                Power power = def.powerType.create(entity, def.data);
+                Power power = def.create(entity);
                 abilities.add(power);
             } catch (Exception e) {
                 LOGGER.atWarning().log("Failed to create power from power %s: %s", powerId, e.getMessage());
@@ -1,17 +1,23 @@
 package arvem.aspectral.aspect;
 
+import arvem.aspectral.AspectPowers;
 import arvem.aspectral.registry.PowerTypeRegistry;
+import arvem.aspectral.util.DataFileLoader;
 import com.google.gson.JsonArray;
 import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
 import com.google.gson.JsonParser;
 import com.hypixel.hytale.logger.HytaleLogger;
 
-import java.io.FileReader;
 import java.io.IOException;
+import java.io.Reader;
 import java.nio.file.Files;
 import java.nio.file.Path;
-import java.util.stream.Stream;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Loads Aspect definitions from JSON files.
@@ -25,6 +31,9 @@ public class AspectLoader {
 
     private final AspectRegistry registry;
 
+    // Aspect each loaded file defined, so a deleted or renamed file can take its aspect along
+    private final Map<Path, String> fileIds = new ConcurrentHashMap<>();
+
     public AspectLoader(AspectRegistry registry, PowerTypeRegistry powerTypeRegistry) {
         this.registry = registry;
     }
@@ -55,41 +64,101 @@ public class AspectLoader {
             return;
         }
 
-        int loaded = 0;
-        int filesFound = 0;
-        try (Stream<Path> paths = Files.walk(aspectsDir)) {
-            for (Path path : (Iterable<Path>) paths::iterator) {
-                if (Files.isRegularFile(path) && path.toString().endsWith(".json")) {
-                    filesFound++;
-                    LOGGER.atInfo().log("Found JSON file: %s", path.getFileName());
-                    try {
-                        loadAspect(path);
-                        loaded++;
-                    } catch (Exception e) {
-                        LOGGER.atWarning().log("Failed to load aspect from %s: %s",
-                            path.getFileName(), e.getMessage());
-                        e.printStackTrace();
-                    }
-                }
-            }
+        DataFileLoader.Result<Aspect> result;
+        try {
+            result = DataFileLoader.parseAll(aspectsDir, Integer.MAX_VALUE, AspectPowers.namespace(), this::parseAspectFile);
         } catch (IOException e) {
             LOGGER.atSevere().log("Failed to read aspects directory: %s", e.getMessage());
+            return;
         }
 
-        LOGGER.atInfo().log("Found %d JSON file(s), loaded %d aspect(s) from %s", filesFound, loaded, aspectsDir);
+        // Register on this thread, in file order, so the registry does not depend on parse timing
+        for (DataFileLoader.Loaded<Aspect> loaded : result.loaded()) {
+            registry.register(loaded.value());
+            fileIds.put(loaded.file(), loaded.value().getIdentifier());
+            LOGGER.atInfo().log("Aspect registered: %s", loaded.value().getIdentifier());
+        }
+        DataFileLoader.logFailures(LOGGER, "aspect", result.failures());
+
+        LOGGER.atInfo().log("Found %d JSON file(s), loaded %d aspect(s) from %s",
+            result.files(), result.loaded().size(), aspectsDir);
     }
 
     /**
      * Load a single aspect from a JSON file.
      */
     public void loadAspect(Path jsonFile) throws IOException {
-        LOGGER.atInfo().log("Loading aspect from: %s", jsonFile.getFileName());
-
         JsonObject json;
-        try (FileReader reader = new FileReader(jsonFile.toFile())) {
+        try (Reader reader = Files.newBufferedReader(jsonFile)) {
             json = JsonParser.parseReader(reader).getAsJsonObject();
         }
 
+        Aspect aspect = parseAspectFile(jsonFile, json);
+        registry.register(aspect);
+        fileIds.put(jsonFile, aspect.getIdentifier());
+        LOGGER.atInfo().log("Aspect registered: %s", aspect.getIdentifier());
+    }
+
+    /**
+     * Reload the given aspect files, leaving every other aspect as it is.
+     * Files that no longer exist remove their aspect; files that fail to parse keep the aspect they had.
+     *
+     * @param aspectsDir Directory containing JSON files
+     * @param files The files that changed
+     * @return The aspects that were added, replaced or removed
+     */
+    public List<DataFileLoader.Change<Aspect>> reloadFiles(Path aspectsDir, Collection<Path> files) {
+        List<DataFileLoader.Change<Aspect>> changes = new ArrayList<>();
+        List<Path> existing = new ArrayList<>();
+        for (Path file : files) {
+            if (Files.isRegularFile(file)) {
+                existing.add(file);
+                continue;
+            }
+            String aspectId = fileIds.remove(file);
+            Aspect previous = aspectId != null ? registry.unregister(aspectId) : null;
+            if (previous != null) {
+                changes.add(new DataFileLoader.Change<>(aspectId, previous, null));
+                LOGGER.atInfo().log("Aspect removed: %s", aspectId);
+            }
+        }
+
+        DataFileLoader.Result<Aspect> result;
+        try {
+            result = DataFileLoader.parseFiles(aspectsDir, existing, AspectPowers.namespace(), this::parseAspectFile);
+        } catch (IOException e) {
+            LOGGER.atSevere().log("Failed to reload aspects: %s", e.getMessage());
+            return changes;
+        }
+
+        for (DataFileLoader.Loaded<Aspect> loaded : result.loaded()) {
+            Aspect aspect = loaded.value();
+            String aspectId = aspect.getIdentifier();
+
+            // The file may now declare a different ID than the aspect it defined before
+            String previousId = fileIds.put(loaded.file(), aspectId);
+            if (previousId != null && !previousId.equals(aspectId)) {
+                Aspect renamed = registry.unregister(previousId);
+                if (renamed != null) {
+                    changes.add(new DataFileLoader.Change<>(previousId, renamed, null));
+                }
+            }
+
+            Aspect previous = registry.get(aspectId);
+            registry.register(aspect);
+            changes.add(new DataFileLoader.Change<>(aspectId, previous, aspect));
+            LOGGER.atInfo().log("Aspect reloaded: %s", aspectId);
+        }
+        DataFileLoader.logFailures(LOGGER, "aspect", result.failures());
+        return changes;
+    }
+
+    /**
+     * Parse an aspect from the contents of its JSON file. Runs on a loader thread, so it must not touch the registry.
+     */
+    private Aspect parseAspectFile(Path jsonFile, JsonObject json) {
+        LOGGER.atInfo().log("Loading aspect from: %s", jsonFile.getFileName());
+
         // Derive identifier from filename (e.g., "human.json" -> "aspectral:human")
         String filename = jsonFile.getFileName().toString();
         String aspectId = filename.substring(0, filename.length() - 5); // Remove .json
@@ -105,8 +174,7 @@ public class AspectLoader {
         LOGGER.atInfo().log("Parsed aspect ID: %s", aspectId);
         Aspect aspect = parseAspect(aspectId, json);
         LOGGER.atInfo().log("Parsed aspect with %d powers", aspect.getPowerCount());
-        registry.register(aspect);
-        LOGGER.atInfo().log("Aspect registered: %s", aspectId);
+        return aspect;
     }
 
     /**
@@ -165,6 +233,7 @@ public class AspectLoader {
      */
     public void reload(Path aspectsDir) {
         registry.clear();
+        fileIds.clear();
         loadFromDirectory(aspectsDir);
     }
 }
@@ -32,6 +32,15 @@ public class AspectRegistry {
         LOGGER.atInfo().log("Registry size now: %d", aspects.size());
     }
 
+    /**
+     * Remove an aspect.
+     *
+     * @return The removed aspect, or null if there was none
+     */
+    public Aspect unregister(String identifier) {
+        return aspects.remove(identifier);
+    }
+
     /**
      * Get an aspect by identifier.
      */
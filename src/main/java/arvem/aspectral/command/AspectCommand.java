@@ -58,7 +58,7 @@ public class AspectCommand extends AbstractCommandCollection {
             Store<EntityStore> store) {
         Ref<EntityStore> targetRef = targetPlayerRef.getReference();
         Player targetPlayer = store.getComponent(targetRef, Player.getComponentType());
-        return new HytalePlayerAdapter(targetPlayer, targetPlayerRef, targetRef, store);
+        return AspectPowers.getInstance().getAdapterCache().get(targetPlayer, targetPlayerRef, targetRef, store);
     }
 
     // ========================================
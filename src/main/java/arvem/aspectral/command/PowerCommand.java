@@ -1,9 +1,12 @@
 package arvem.aspectral.command;
 
 import arvem.aspectral.AspectPowers;
+import arvem.aspectral.DataReloader;
 import arvem.aspectral.component.PowerHolderComponent;
+import arvem.aspectral.persistence.PowerPersistenceManager;
 import arvem.aspectral.powers.Power;
 import arvem.aspectral.powers.PowerType;
+import arvem.aspectral.powers.factory.condition.ConditionCompiler;
 import arvem.aspectral.api.HytalePlayerAdapter;
 import com.hypixel.hytale.component.Ref;
 import com.hypixel.hytale.component.Store;
@@ -32,6 +35,11 @@ import java.util.List;
  *   /power revoke <player> <power> [source] - Revoke an power from a player
  *   /power list <player> - List all powers on a player
  *   /power clear <player> [source] - Clear powers from a player
+ *   /power conditions <player> <power> - Show the evaluation order of a power's conditions
+ *   /power adaptive <on|off> - Toggle adaptive reordering of compound conditions
+ *   /power convertsaves - Convert legacy JSON player saves to the binary format
+ *   /power migratestore <files|segmented|shared> - Move player saves to another storage backend
+ *   /power watch <on|off> - Toggle reloading data files as they change
  */
 public class PowerCommand extends AbstractCommandCollection {
 
@@ -52,6 +60,11 @@ public class PowerCommand extends AbstractCommandCollection {
         addSubCommand(new ClearCommand("clear", "Clear powers from a player"));
         addSubCommand(new InfoCommand("info", "Show info about a specific power on a player"));
         addSubCommand(new SourcesCommand("sources", "Show sources that granted powers to a player"));
+        addSubCommand(new ConditionsCommand("conditions", "Show the evaluation order of a power's conditions"));
+        addSubCommand(new AdaptiveCommand("adaptive", "Toggle adaptive reordering of compound conditions"));
+        addSubCommand(new ConvertSavesCommand("convertsaves", "Convert legacy JSON player saves to the binary format"));
+        addSubCommand(new MigrateStoreCommand("migratestore", "Move player saves to another storage backend"));
+        addSubCommand(new WatchCommand("watch", "Toggle reloading data files as they change"));
         this.setPermissionGroup(GameMode.Creative);
     }
 
@@ -63,7 +76,7 @@ public class PowerCommand extends AbstractCommandCollection {
             Store<EntityStore> store) {
         Ref<EntityStore> targetRef = targetPlayerRef.getReference();
         Player targetPlayer = store.getComponent(targetRef, Player.getComponentType());
-        return new HytalePlayerAdapter(targetPlayer, targetPlayerRef, targetRef, store);
+        return AspectPowers.getInstance().getAdapterCache().get(targetPlayer, targetPlayerRef, targetRef, store);
     }
 
     // ========================================
@@ -123,7 +136,7 @@ public class PowerCommand extends AbstractCommandCollection {
                         continue;
                     }
 
-                    String powerTypeId = definition.powerType.getIdentifier();
+                    String powerTypeId = definition.getTypeId();
                     String fullPowerId = aspect.getIdentifier() + ":" + i;
 
                     playerRef.sendMessage(Message.raw("    - ").color(COLOR_GRAY)
@@ -193,7 +206,7 @@ public class PowerCommand extends AbstractCommandCollection {
             HytalePlayerAdapter adapter = createPlayerAdapter(targetPlayerRef, store);
 
             // Create power instance
-            Power power = definition.powerType.create(adapter, definition.data);
+            Power power = definition.create(adapter);
 
             // Add to holder
             PowerHolderComponent component = PowerHolderComponent.getOrCreate(adapter);
@@ -202,7 +215,7 @@ public class PowerCommand extends AbstractCommandCollection {
             playerRef.sendMessage(Message.raw("Granted ").color(COLOR_GREEN)
                     .insert(Message.raw(powerId).color(COLOR_WHITE))
                     .insert(Message.raw(" (").color(COLOR_GRAY))
-                    .insert(Message.raw(definition.powerType.getIdentifier()).color(COLOR_YELLOW))
+                    .insert(Message.raw(definition.getTypeId()).color(COLOR_YELLOW))
                     .insert(Message.raw(") to ").color(COLOR_GREEN))
                     .insert(Message.raw(targetPlayerRef.getUsername()).color(COLOR_WHITE)));
         }
@@ -404,14 +417,194 @@ public class PowerCommand extends AbstractCommandCollection {
                     .insert(Message.raw(String.join(", ", sources)).color(COLOR_WHITE)));
 
             // Ticking
-            String tickStatus = power.shouldTick() ? "Yes" : "No";
+            String tickStatus = power.isAwake() ? "Awake" : "Sleeping";
             playerRef.sendMessage(Message.raw("  Ticking: ").color(COLOR_GRAY)
                     .insert(Message.raw(tickStatus).color(COLOR_WHITE)));
 
             // Type info
             PowerType<?> type = power.getType();
             playerRef.sendMessage(Message.raw("  Type ID: ").color(COLOR_GRAY)
-                    .insert(Message.raw(type.getIdentifier()).color(COLOR_WHITE)));
+                    .insert(Message.raw(type.getFactoryId()).color(COLOR_WHITE)));
+        }
+    }
+
+    private static class ConditionsCommand extends AbstractPlayerCommand {
+        public ConditionsCommand(@NonNull String name, @NonNull String description) {
+            super(name, description);
+        }
+
+        RequiredArg<PlayerRef> targetPlayerArg = this.withRequiredArg("player", "Target player", ArgTypes.PLAYER_REF);
+        RequiredArg<String> powerArg = this.withRequiredArg("power", "Power ID", ArgTypes.STRING);
+
+        @Override
+        protected void execute(@NonNull CommandContext commandContext, @NonNull Store<EntityStore> store,
+                              @NonNull Ref<EntityStore> ref, @NonNull PlayerRef playerRef, @NonNull World world) {
+            PlayerRef targetPlayerRef = targetPlayerArg.get(commandContext);
+            String powerId = powerArg.get(commandContext);
+
+            HytalePlayerAdapter adapter = createPlayerAdapter(targetPlayerRef, store);
+            PowerHolderComponent component = PowerHolderComponent.get(adapter);
+
+            Power power = null;
+            if (component != null) {
+                for (Power a : component.getAbilities()) {
+                    if (a.getType().getIdentifier().equals(powerId)) {
+                        power = a;
+                        break;
+                    }
+                }
+            }
+
+            if (power == null) {
+                playerRef.sendMessage(Message.raw(targetPlayerRef.getUsername()).color(COLOR_RED)
+                        .insert(Message.raw(" doesn't have ").color(COLOR_RED))
+                        .insert(Message.raw(powerId).color(COLOR_WHITE)));
+                return;
+            }
+
+            String mode = ConditionCompiler.isAdaptiveOrdering() ? "adaptive" : "static";
+            playerRef.sendMessage(Message.raw("=== Conditions: " + powerId + " (" + mode + ") ===").color(COLOR_GOLD));
+
+            if (power.getConditions().isEmpty()) {
+                playerRef.sendMessage(Message.raw("  No conditions.").color(COLOR_GRAY));
+                return;
+            }
+
+            for (var condition : power.getConditions()) {
+                playerRef.sendMessage(Message.raw("  - ").color(COLOR_GRAY)
+                        .insert(Message.raw(ConditionCompiler.describe(condition)).color(COLOR_WHITE)));
+            }
+        }
+    }
+
+    private static class AdaptiveCommand extends AbstractPlayerCommand {
+        public AdaptiveCommand(@NonNull String name, @NonNull String description) {
+            super(name, description);
+        }
+
+        RequiredArg<String> stateArg = this.withRequiredArg("state", "on or off", ArgTypes.STRING);
+
+        @Override
+        protected void execute(@NonNull CommandContext commandContext, @NonNull Store<EntityStore> store,
+                              @NonNull Ref<EntityStore> ref, @NonNull PlayerRef playerRef, @NonNull World world) {
+            String state = stateArg.get(commandContext);
+
+            boolean enabled;
+            if (state.equalsIgnoreCase("on")) {
+                enabled = true;
+            } else if (state.equalsIgnoreCase("off")) {
+                enabled = false;
+            } else {
+                playerRef.sendMessage(Message.raw("Invalid state. Use: ").color(COLOR_RED)
+                        .insert(Message.raw("on").color(COLOR_WHITE))
+                        .insert(Message.raw(" or ").color(COLOR_RED))
+                        .insert(Message.raw("off").color(COLOR_WHITE)));
+                return;
+            }
+
+            ConditionCompiler.setAdaptiveOrdering(enabled);
+            playerRef.sendMessage(Message.raw("Adaptive condition ordering ").color(COLOR_GREEN)
+                    .insert(Message.raw(enabled ? "enabled" : "disabled").color(COLOR_WHITE)));
+        }
+    }
+
+    private static class ConvertSavesCommand extends AbstractPlayerCommand {
+        public ConvertSavesCommand(@NonNull String name, @NonNull String description) {
+            super(name, description);
+        }
+
+        @Override
+        protected void execute(@NonNull CommandContext commandContext, @NonNull Store<EntityStore> store,
+                              @NonNull Ref<EntityStore> ref, @NonNull PlayerRef playerRef, @NonNull World world) {
+            playerRef.sendMessage(Message.raw("Converting player saves...").color(COLOR_GRAY));
+
+            // Conversion runs in the background; report back on the world thread
+            AspectPowers.getInstance().getPersistenceManager().convertLegacySaves().whenComplete((converted, error) ->
+                world.execute(() -> {
+                    if (error != null) {
+                        playerRef.sendMessage(Message.raw("Failed to convert saves: ").color(COLOR_RED)
+                                .insert(Message.raw(String.valueOf(error.getMessage())).color(COLOR_WHITE)));
+                    } else {
+                        playerRef.sendMessage(Message.raw("Converted ").color(COLOR_GREEN)
+                                .insert(Message.raw(String.valueOf(converted)).color(COLOR_WHITE))
+                                .insert(Message.raw(" player save(s)").color(COLOR_GREEN)));
+                    }
+                }));
+        }
+    }
+
+    private static class MigrateStoreCommand extends AbstractPlayerCommand {
+        public MigrateStoreCommand(@NonNull String name, @NonNull String description) {
+            super(name, description);
+        }
+
+        RequiredArg<String> backendArg = this.withRequiredArg("backend", "files, segmented or shared", ArgTypes.STRING);
+
+        @Override
+        protected void execute(@NonNull CommandContext commandContext, @NonNull Store<EntityStore> store,
+                              @NonNull Ref<EntityStore> ref, @NonNull PlayerRef playerRef, @NonNull World world) {
+            PowerPersistenceManager.StorageBackend backend = PowerPersistenceManager.StorageBackend.byName(backendArg.get(commandContext));
+            if (backend == null) {
+                playerRef.sendMessage(Message.raw("Invalid backend. Use: ").color(COLOR_RED)
+                        .insert(Message.raw("files").color(COLOR_WHITE))
+                        .insert(Message.raw(", ").color(COLOR_RED))
+                        .insert(Message.raw("segmented").color(COLOR_WHITE))
+                        .insert(Message.raw(" or ").color(COLOR_RED))
+                        .insert(Message.raw("shared").color(COLOR_WHITE)));
+                return;
+            }
+
+            playerRef.sendMessage(Message.raw("Migrating player saves...").color(COLOR_GRAY));
+
+            // Migration runs in the background; report back on the world thread
+            AspectPowers.getInstance().getPersistenceManager().migrateStore(backend).whenComplete((migrated, error) ->
+                world.execute(() -> {
+                    if (error != null) {
+                        playerRef.sendMessage(Message.raw("Failed to migrate saves: ").color(COLOR_RED)
+                                .insert(Message.raw(String.valueOf(error.getMessage())).color(COLOR_WHITE)));
+                    } else {
+                        playerRef.sendMessage(Message.raw("Migrated ").color(COLOR_GREEN)
+                                .insert(Message.raw(String.valueOf(migrated)).color(COLOR_WHITE))
+                                .insert(Message.raw(" player save(s) to ").color(COLOR_GREEN))
+                                .insert(Message.raw(backend.name().toLowerCase()).color(COLOR_WHITE)));
+                    }
+                }));
+        }
+    }
+
+    private static class WatchCommand extends AbstractPlayerCommand {
+        public WatchCommand(@NonNull String name, @NonNull String description) {
+            super(name, description);
+        }
+
+        RequiredArg<String> stateArg = this.withRequiredArg("state", "on or off", ArgTypes.STRING);
+
+        @Override
+        protected void execute(@NonNull CommandContext commandContext, @NonNull Store<EntityStore> store,
+                              @NonNull Ref<EntityStore> ref, @NonNull PlayerRef playerRef, @NonNull World world) {
+            String state = stateArg.get(commandContext);
+            DataReloader reloader = AspectPowers.getInstance().getDataReloader();
+
+            if (state.equalsIgnoreCase("on")) {
+                try {
+                    reloader.startWatching();
+                } catch (Exception e) {
+                    playerRef.sendMessage(Message.raw("Failed to watch data files: ").color(COLOR_RED)
+                            .insert(Message.raw(String.valueOf(e.getMessage())).color(COLOR_WHITE)));
+                    return;
+                }
+            } else if (state.equalsIgnoreCase("off")) {
+                reloader.stopWatching();
+            } else {
+                playerRef.sendMessage(Message.raw("Invalid state. Use: ").color(COLOR_RED)
+                        .insert(Message.raw("on").color(COLOR_WHITE))
+                        .insert(Message.raw(" or ").color(COLOR_RED))
+                        .insert(Message.raw("off").color(COLOR_WHITE)));
+                return;
+            }
+
+            playerRef.sendMessage(Message.raw("Data file watching ").color(COLOR_GREEN)
+                    .insert(Message.raw(reloader.isWatching() ? "enabled" : "disabled").color(COLOR_WHITE)));
         }
     }
 
@@ -1,17 +1,19 @@
 package arvem.aspectral.component;
 
 import arvem.aspectral.AspectPowers;
+import arvem.aspectral.power.PowerRegistry;
 import arvem.aspectral.powers.Power;
+import arvem.aspectral.powers.PowerDefinition;
 import arvem.aspectral.api.HytalePlayerAdapter;
 import arvem.aspectral.api.LivingEntity;
 import arvem.aspectral.aspect.Aspect;
+import arvem.aspectral.util.ConcurrentLongPairMap;
 import com.google.gson.JsonObject;
 import com.hypixel.hytale.logger.HytaleLogger;
 
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.ConcurrentMap;
 
 /**
  * Component that stores which Aspect a player has chosen.
@@ -24,6 +26,9 @@ public class PlayerAspectComponent {
     private final LivingEntity entity;
     private String aspectId;
 
+    // Set when the aspect changed since the last save snapshot
+    private volatile boolean dirty = false;
+
     public PlayerAspectComponent(LivingEntity entity) {
         this.entity = entity;
         this.aspectId = null;
@@ -39,6 +44,7 @@ public class PlayerAspectComponent {
 
         // Set new aspect ID
         this.aspectId = aspectId;
+        markDirty();
 
         // Recreate powers from the aspect
         if (aspectId != null) {
@@ -86,6 +92,53 @@ public class PlayerAspectComponent {
         LOGGER.atInfo().log("Applied aspect %s with %d powers to player", aspectId, powers.size());
     }
 
+    /**
+     * Bring the player's powers in line with a reloaded version of their aspect.
+     * Powers the aspect still grants are left alone, so their state carries over.
+     *
+     * @param previousPowerIds The powers the aspect granted before the reload
+     * @param previousDefinitions Definitions the reload removed or replaced, by power ID
+     */
+    public void refreshAspect(List<String> previousPowerIds, Map<String, PowerDefinition> previousDefinitions) {
+        if (aspectId == null) {
+            return;
+        }
+
+        PowerRegistry powerRegistry = PowerRegistry.getInstance();
+        Aspect aspect = AspectPowers.getInstance().getAspectRegistry().get(aspectId);
+        List<String> currentPowerIds = aspect != null ? aspect.getPowerIds() : List.of();
+        PowerHolderComponent holder = PowerHolderComponent.getOrCreate(entity);
+
+        for (String powerId : previousPowerIds) {
+            if (currentPowerIds.contains(powerId)) {
+                continue;
+            }
+            PowerDefinition def = powerRegistry.getPower(powerId);
+            if (def == null) {
+                def = previousDefinitions.get(powerId);
+            }
+            if (def != null) {
+                holder.removePower(def.powerType, aspectId);
+            }
+        }
+
+        for (String powerId : currentPowerIds) {
+            if (previousPowerIds.contains(powerId)) {
+                continue;
+            }
+            PowerDefinition def = powerRegistry.getPower(powerId);
+            if (def == null) {
+                LOGGER.atWarning().log("Power not found: %s (referenced by aspect %s)", powerId, aspectId);
+                continue;
+            }
+            try {
+                holder.addPower(def.create(entity), aspectId);
+            } catch (Exception e) {
+                LOGGER.atWarning().log("Failed to create power from power %s: %s", powerId, e.getMessage());
+            }
+        }
+    }
+
     /**
      * Clear all powers from the player.
      */
@@ -102,6 +155,36 @@ public class PlayerAspectComponent {
     public void clearAspect() {
         clearAbilities();
         this.aspectId = null;
+        markDirty();
+    }
+
+    /**
+     * Flag the aspect as changed since it was last saved.
+     * The first change after a save queues the player for autosave.
+     */
+    private void markDirty() {
+        if (!dirty) {
+            dirty = true;
+            AspectPowers aspectPowers = AspectPowers.getInstance();
+            if (aspectPowers != null) {
+                aspectPowers.getPersistenceManager().scheduleAutosave(entity);
+            }
+        }
+    }
+
+    public boolean isDirty() {
+        return dirty;
+    }
+
+    /**
+     * Clear the dirty flag, e.g. right after a save snapshot was taken.
+     *
+     * @return Whether the aspect was dirty
+     */
+    public boolean clearDirty() {
+        boolean wasDirty = dirty;
+        dirty = false;
+        return wasDirty;
     }
 
     /**
@@ -138,21 +221,23 @@ public class PlayerAspectComponent {
     // ========================================
 
     public static class Manager {
-        private final ConcurrentMap<UUID, PlayerAspectComponent> components = new ConcurrentHashMap<>();
+        // Keyed by the two halves of the player's UUID, so lookups allocate nothing
+        private final ConcurrentLongPairMap<PlayerAspectComponent> components = new ConcurrentLongPairMap<>();
 
         public PlayerAspectComponent getOrCreate(LivingEntity entity) {
             UUID uuid = getUUID(entity);
-            return components.computeIfAbsent(uuid, k -> new PlayerAspectComponent(entity));
+            return components.computeIfAbsent(uuid.getMostSignificantBits(), uuid.getLeastSignificantBits(),
+                () -> new PlayerAspectComponent(entity));
         }
 
         public PlayerAspectComponent get(LivingEntity entity) {
             UUID uuid = getUUID(entity);
-            return components.get(uuid);
+            return components.get(uuid.getMostSignificantBits(), uuid.getLeastSignificantBits());
         }
 
         public void remove(LivingEntity entity) {
             UUID uuid = getUUID(entity);
-            components.remove(uuid);
+            components.remove(uuid.getMostSignificantBits(), uuid.getLeastSignificantBits());
         }
 
         private UUID getUUID(LivingEntity entity) {
@@ -1,16 +1,32 @@
 package arvem.aspectral.component;
 
 import arvem.aspectral.AspectPowers;
+import arvem.aspectral.power.PowerRegistry;
 import arvem.aspectral.powers.Power;
+import arvem.aspectral.powers.PowerDefinition;
+import arvem.aspectral.powers.PowerHook;
+import arvem.aspectral.powers.PowerTicker;
 import arvem.aspectral.powers.PowerType;
+import arvem.aspectral.api.HytaleLivingEntityAdapter;
+import arvem.aspectral.api.HytalePlayerAdapter;
 import arvem.aspectral.api.LivingEntity;
+import arvem.aspectral.util.ConcurrentLongPairMap;
+import arvem.aspectral.util.Scheduler;
 import com.google.gson.JsonArray;
 import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
+import com.hypixel.hytale.component.Ref;
 import com.hypixel.hytale.logger.HytaleLogger;
+import com.hypixel.hytale.server.core.universe.PlayerRef;
+import com.hypixel.hytale.server.core.universe.world.World;
+import com.hypixel.hytale.server.core.universe.world.storage.EntityStore;
 
+import javax.annotation.Nullable;
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
 /**
@@ -32,9 +48,23 @@ public class PowerHolderComponent {
     // Maps power type identifier to list of sources that granted it
     private final Map<String, Set<String>> powerSources = new ConcurrentHashMap<>();
 
-    // Cached list of powers that need ticking
-    private final List<Power> tickingPowers = new ArrayList<>();
-    private boolean tickingDirty = true;
+    // Schedules ticks for awake powers only
+    private final PowerTicker ticker = new PowerTicker();
+
+    // Powers handling each event hook, indexed by PowerHook ordinal; rebuilt when powers change
+    private volatile Power[][] listeners = emptyListeners();
+
+    // The world shard this component is ticked in, managed by Manager
+    private volatile Manager.Shard shard;
+
+    // The entity reference this component is indexed under, managed by Manager
+    private volatile Ref<EntityStore> indexedRef;
+
+    // Delayed tasks owned by this entity; power scopes nest under it
+    private final Scheduler.Scope taskScope = AspectPowers.SCHEDULER.newScope();
+
+    // Set when the saved state changed since the last save snapshot
+    private volatile boolean dirty = false;
 
     public PowerHolderComponent(LivingEntity entity) {
         this.entity = entity;
@@ -61,10 +91,13 @@ public class PowerHolderComponent {
         // Create new power instance
         Power power = powerType.create(entity);
         powers.put(id, power);
-        tickingDirty = true;
+        runOnTickThread(() -> ticker.attach(power));
+        rebuildListeners();
 
         power.onAdded(false);
         power.onGained();
+        invalidateActiveStates();
+        markDirty();
 
         LOGGER.atFine().log("Added power %s to entity %s from source %s", id, entity, source);
         return true;
@@ -91,7 +124,11 @@ public class PowerHolderComponent {
             if (power != null) {
                 power.onLost();
                 power.onRemoved(false);
-                tickingDirty = true;
+                power.cancelTasks();
+                runOnTickThread(() -> ticker.detach(power));
+                rebuildListeners();
+                invalidateActiveStates();
+                markDirty();
                 LOGGER.atFine().log("Removed power %s from entity %s", id, entity);
             }
         }
@@ -113,10 +150,13 @@ public class PowerHolderComponent {
 
         // Store the power instance
         powers.put(id, power);
-        tickingDirty = true;
+        runOnTickThread(() -> ticker.attach(power));
+        rebuildListeners();
 
         power.onAdded(false);
         power.onGained();
+        invalidateActiveStates();
+        markDirty();
 
         LOGGER.atFine().log("Added power %s to entity %s from source %s", id, entity, source);
     }
@@ -141,12 +181,66 @@ public class PowerHolderComponent {
             if (removed != null) {
                 removed.onLost();
                 removed.onRemoved(false);
-                tickingDirty = true;
+                removed.cancelTasks();
+                runOnTickThread(() -> ticker.detach(removed));
+                rebuildListeners();
+                invalidateActiveStates();
+                markDirty();
                 LOGGER.atFine().log("Removed power %s from entity %s", id, entity);
             }
         }
     }
 
+    /**
+     * Replace a power created from a definition that was reloaded, keeping its sources and runtime state.
+     *
+     * @param previousType The type of the power before the reload
+     * @param createReplacement Creates the power from the new definition, only called if this
+     *                          entity has the power; null to remove the power
+     * @return Whether this entity had the power
+     */
+    public boolean replacePower(PowerType<?> previousType, @Nullable Supplier<? extends Power> createReplacement) {
+        String id = previousType.getIdentifier();
+        Power previous = powers.get(id);
+        if (previous == null || previous.getType() != previousType) {
+            return false;
+        }
+        // Created before the previous power goes, so a failure leaves it in place
+        Power replacement = createReplacement != null ? createReplacement.get() : null;
+
+        powers.remove(id);
+        previous.onLost();
+        previous.onRemoved(false);
+        previous.cancelTasks();
+
+        // Runtime state (resource values, cooldowns) moves to the replacement; taken once the
+        // previous power is gone, so it records what it left on the entity (no modifier applied)
+        JsonObject state = new JsonObject();
+        previous.writeState(state);
+        runOnTickThread(() -> ticker.detach(previous));
+        Set<String> sources = powerSources.remove(id);
+
+        if (replacement != null) {
+            String replacementId = replacement.getType().getIdentifier();
+            if (sources != null) {
+                powerSources.computeIfAbsent(replacementId, k -> new HashSet<>()).addAll(sources);
+            }
+            if (!powers.containsKey(replacementId)) {
+                powers.put(replacementId, replacement);
+                runOnTickThread(() -> ticker.attach(replacement));
+                replacement.readState(state);
+                replacement.onAdded(false);
+                replacement.onGained();
+            }
+        }
+
+        rebuildListeners();
+        invalidateActiveStates();
+        markDirty();
+        LOGGER.atFine().log("Replaced power %s on entity %s", id, entity);
+        return true;
+    }
+
     /**
      * Clear all powers.
      */
@@ -154,10 +248,14 @@ public class PowerHolderComponent {
         for (Power power : new ArrayList<>(powers.values())) {
             power.onLost();
             power.onRemoved(false);
+            power.cancelTasks();
         }
         powers.clear();
         powerSources.clear();
-        tickingDirty = true;
+        runOnTickThread(ticker::clear);
+        rebuildListeners();
+        taskScope.cancelAll();
+        markDirty();
         LOGGER.atFine().log("Cleared all powers from entity %s", entity);
     }
 
@@ -178,6 +276,8 @@ public class PowerHolderComponent {
                     if (power != null) {
                         power.onLost();
                         power.onRemoved(false);
+                        power.cancelTasks();
+                        runOnTickThread(() -> ticker.detach(power));
                         removed++;
                     }
                 }
@@ -185,9 +285,10 @@ public class PowerHolderComponent {
         }
 
         if (removed > 0) {
-            tickingDirty = true;
+            rebuildListeners();
+            invalidateActiveStates();
+            markDirty();
         }
-
         return removed;
     }
 
@@ -268,29 +369,115 @@ public class PowerHolderComponent {
         return sources != null ? new ArrayList<>(sources) : Collections.emptyList();
     }
 
+    /**
+     * Run a change to the ticker on the thread that ticks this holder.
+     * The ticker is not thread-safe, so changes made from a command or event thread
+     * are handed to the holder's world thread, in the order they were made.
+     * Runs inline when already on that thread or when the holder has no world.
+     */
+    public void runOnTickThread(Runnable task) {
+        Manager.Shard current = shard;
+        World world = current != null ? current.world : null;
+        if (world == null || world.isInThread()) {
+            task.run();
+            return;
+        }
+        try {
+            world.execute(task);
+        } catch (Exception e) {
+            LOGGER.atWarning().log("Failed to schedule power update for %s: %s", entity, e.getMessage());
+        }
+    }
+
     /**
      * Called each tick to update powers.
+     * Only awake powers are visited; see {@link Power#requestTick()}.
      */
     public void tick() {
-        if (tickingDirty) {
-            rebuildTickingList();
-        }
+        ticker.tick(AspectPowers.getCurrentTick());
+    }
 
-        for (Power power : tickingPowers) {
-            if (power.shouldTickWhenInactive() || power.isActive()) {
-                power.tick();
+    /**
+     * Rebuild the per-hook listener arrays from the current powers.
+     * Rebuilds run one at a time, so the last one published saw every change made before it.
+     */
+    private synchronized void rebuildListeners() {
+        PowerHook[] hooks = PowerHook.values();
+        List<List<Power>> byHook = new ArrayList<>(hooks.length);
+        for (int i = 0; i < hooks.length; i++) {
+            byHook.add(new ArrayList<>());
+        }
+        for (Power power : powers.values()) {
+            for (PowerHook hook : power.getHooks()) {
+                byHook.get(hook.ordinal()).add(power);
             }
         }
+        Power[][] rebuilt = new Power[hooks.length][];
+        for (int i = 0; i < hooks.length; i++) {
+            rebuilt[i] = byHook.get(i).toArray(new Power[0]);
+        }
+        listeners = rebuilt;
     }
 
-    private void rebuildTickingList() {
-        tickingPowers.clear();
+    private static Power[][] emptyListeners() {
+        Power[][] empty = new Power[PowerHook.values().length][];
+        Arrays.fill(empty, new Power[0]);
+        return empty;
+    }
+
+    /**
+     * Drop the cached condition results of all powers.
+     * Called whenever state that conditions may read changes mid-tick,
+     * e.g. a power being added or removed, a resource changing or a toggle flipping.
+     */
+    public void invalidateActiveStates() {
         for (Power power : powers.values()) {
-            if (power.shouldTick()) {
-                tickingPowers.add(power);
+            power.invalidateActiveState();
+        }
+    }
+
+    /**
+     * Flag this holder as changed since it was last saved.
+     * The first change after a save queues the player for autosave.
+     */
+    public void markDirty() {
+        if (!dirty) {
+            dirty = true;
+            AspectPowers aspectPowers = AspectPowers.getInstance();
+            if (aspectPowers != null) {
+                aspectPowers.getPersistenceManager().scheduleAutosave(entity);
             }
         }
-        tickingDirty = false;
+    }
+
+    public boolean isDirty() {
+        return dirty;
+    }
+
+    /**
+     * Clear the dirty flag, e.g. right after a save snapshot was taken.
+     *
+     * @return Whether the holder was dirty
+     */
+    public boolean clearDirty() {
+        boolean wasDirty = dirty;
+        dirty = false;
+        return wasDirty;
+    }
+
+    /**
+     * Get the scope for tasks owned by this entity.
+     * Its tasks are cancelled when the powers are cleared or the holder is removed.
+     */
+    public Scheduler.Scope getTaskScope() {
+        return taskScope;
+    }
+
+    /**
+     * Get the ticker scheduling this holder's powers.
+     */
+    public PowerTicker getTicker() {
+        return ticker;
     }
 
     /**
@@ -306,7 +493,7 @@ public class PowerHolderComponent {
      * Dispatch key press event to all powers.
      */
     public void onKeyPressed(String key) {
-        for (Power power : powers.values()) {
+        for (Power power : listeners[PowerHook.KEY_PRESSED.ordinal()]) {
             if (power.isActive()) {
                 power.onKeyPressed(key);
             }
@@ -320,7 +507,7 @@ public class PowerHolderComponent {
      */
     public boolean onDamage(Object event) {
         boolean cancelled = false;
-        for (Power power : powers.values()) {
+        for (Power power : listeners[PowerHook.DAMAGE.ordinal()]) {
             if (power.isActive()) {
                 if (power.onDamage(event)) {
                     cancelled = true;
@@ -337,7 +524,7 @@ public class PowerHolderComponent {
      */
     public boolean onAttack(Object event) {
         boolean cancelled = false;
-        for (Power power : powers.values()) {
+        for (Power power : listeners[PowerHook.ATTACK.ordinal()]) {
             if (power.isActive()) {
                 if (power.onAttack(event)) {
                     cancelled = true;
@@ -354,7 +541,7 @@ public class PowerHolderComponent {
      */
     public boolean onMove(Object event) {
         boolean cancelled = false;
-        for (Power power : powers.values()) {
+        for (Power power : listeners[PowerHook.MOVE.ordinal()]) {
             if (power.isActive()) {
                 if (power.onMove(event)) {
                     cancelled = true;
@@ -382,7 +569,12 @@ public class PowerHolderComponent {
             }
             powerJson.add("sources", sourcesArray);
 
-            powerJson.add("data", entry.getValue().toJson());
+            // Only runtime state; configuration comes from the power type on load
+            JsonObject state = new JsonObject();
+            entry.getValue().writeState(state);
+            if (state.size() > 0) {
+                powerJson.add("data", state);
+            }
             abilitiesArray.add(powerJson);
         }
 
@@ -396,9 +588,14 @@ public class PowerHolderComponent {
     @SuppressWarnings({"rawtypes", "unchecked"})
     public void fromJson(JsonObject json) {
         // Clear existing
+        for (Power power : powers.values()) {
+            power.cancelTasks();
+        }
+        taskScope.cancelAll();
         powers.clear();
         powerSources.clear();
-        tickingDirty = true;
+        runOnTickThread(ticker::clear);
+        rebuildListeners();
 
         if (!json.has("powers")) {
             return;
@@ -417,8 +614,9 @@ public class PowerHolderComponent {
             }
             powerSources.put(id, sources);
 
-            // First try to get a registered PowerType
-            PowerType<?> type = AspectPowers.getInstance()
+            // First try a loaded power, then a registered PowerType
+            PowerDefinition definition = PowerRegistry.getInstance().getPower(id);
+            PowerType<?> type = definition != null ? definition.powerType : AspectPowers.getInstance()
                 .getPowerRegistry()
                 .getPowerType(id);
 
@@ -429,7 +627,8 @@ public class PowerHolderComponent {
                     .getPowerFactory(id);
 
                 if (factory != null) {
-                    // Create PowerType from factory with default values
+                    // Saves from before powers were keyed by power ID name the factory;
+                    // create a PowerType from it with default values
                     var factoryInstance = factory.createDefault();
                     type = new PowerType(id, factoryInstance);
                 }
@@ -438,14 +637,17 @@ public class PowerHolderComponent {
             if (type != null) {
                 Power power = type.create(entity);
                 if (powerJson.has("data")) {
-                    power.fromJson(powerJson.getAsJsonObject("data"));
+                    // Older saves also hold the configuration here, which readState ignores
+                    power.readState(powerJson.getAsJsonObject("data"));
                 }
                 powers.put(id, power);
+                runOnTickThread(() -> ticker.attach(power));
                 power.onAdded(true);
             } else {
                 LOGGER.atWarning().log("Unknown power type during load: %s", id);
             }
         }
+        rebuildListeners();
     }
 
     public LivingEntity getEntity() {
@@ -480,18 +682,61 @@ public class PowerHolderComponent {
     /**
      * Manages power holder components for all entities.
      * Uses UUID for players to persist across reconnects.
+     * <p>
+     * Holders are partitioned into one shard per world. Each shard is ticked on
+     * its own world thread, so worlds tick their powers in parallel and a busy
+     * world does not slow down the others. Holders follow their entity when it
+     * changes worlds.
      */
     public static class Manager {
 
-        // Use String keys - UUID string for players, entity ID for non-players
-        private final Map<String, PowerHolderComponent> components = new ConcurrentHashMap<>();
+        // High key half for non-player entities. UUIDs in use (version 3/4) never have all-zero high bits.
+        private static final long NPC_KEY = 0L;
+
+        // Keyed by UUID halves for players, (NPC_KEY, entity ID) for non-players
+        private final ConcurrentLongPairMap<PowerHolderComponent> components = new ConcurrentLongPairMap<>();
+
+        // Direct entity reference to component index, so event dispatch skips key derivation
+        private final Map<Ref<EntityStore>, PowerHolderComponent> byRef = new ConcurrentHashMap<>();
+
+        // One shard per world; holders without a resolvable world are ticked inline
+        private final Map<World, Shard> shards = new ConcurrentHashMap<>();
+        private final Shard unboundShard = new Shard(null);
 
         /**
          * Get the component for an entity, or null if none exists.
          */
         public PowerHolderComponent get(LivingEntity entity) {
             if (entity == null) return null;
-            return components.get(getEntityKey(entity));
+            UUID uuid = getPlayerUuid(entity);
+            if (uuid != null) {
+                return components.get(uuid.getMostSignificantBits(), uuid.getLeastSignificantBits());
+            }
+            return components.get(NPC_KEY, entity.getEntityId());
+        }
+
+        /**
+         * Get the component for an entity reference, or null if none exists.
+         * Allocation-free; intended for event dispatch.
+         */
+        public PowerHolderComponent getByRef(Ref<EntityStore> ref) {
+            if (ref == null) return null;
+            return byRef.get(ref);
+        }
+
+        /**
+         * Get the component for a player by reference, falling back to their UUID if the
+         * reference is not indexed yet (e.g. right after a world change).
+         */
+        public PowerHolderComponent getByRef(Ref<EntityStore> ref, PlayerRef playerRef) {
+            PowerHolderComponent component = getByRef(ref);
+            if (component == null && playerRef != null) {
+                component = getByUuid(playerRef.getUuid());
+                if (component != null) {
+                    resolveWorld(component);
+                }
+            }
+            return component;
         }
 
         /**
@@ -499,24 +744,39 @@ public class PowerHolderComponent {
          */
         public PowerHolderComponent getOrCreate(LivingEntity entity) {
             if (entity == null) return null;
-            return components.computeIfAbsent(getEntityKey(entity),
-                key -> new PowerHolderComponent(entity));
+            UUID uuid = getPlayerUuid(entity);
+            long high = uuid != null ? uuid.getMostSignificantBits() : NPC_KEY;
+            long low = uuid != null ? uuid.getLeastSignificantBits() : entity.getEntityId();
+            PowerHolderComponent existing = components.get(high, low);
+            if (existing != null) {
+                return existing;
+            }
+            return components.computeIfAbsent(high, low, () -> {
+                PowerHolderComponent component = new PowerHolderComponent(entity);
+                assignShard(component, resolveWorld(component));
+                return component;
+            });
         }
 
         /**
          * Get a component by UUID (for loading saved data).
          */
-        public PowerHolderComponent getByUuid(java.util.UUID uuid) {
+        public PowerHolderComponent getByUuid(UUID uuid) {
             if (uuid == null) return null;
-            return components.get(uuid.toString());
+            return components.get(uuid.getMostSignificantBits(), uuid.getLeastSignificantBits());
         }
 
         /**
          * Store a component with a specific UUID key.
          */
-        public void put(java.util.UUID uuid, PowerHolderComponent component) {
+        public void put(UUID uuid, PowerHolderComponent component) {
             if (uuid != null && component != null) {
-                components.put(uuid.toString(), component);
+                PowerHolderComponent previous = components.put(
+                    uuid.getMostSignificantBits(), uuid.getLeastSignificantBits(), component);
+                if (previous != null && previous != component) {
+                    release(previous);
+                }
+                assignShard(component, resolveWorld(component));
             }
         }
 
@@ -525,49 +785,231 @@ public class PowerHolderComponent {
          */
         public void remove(LivingEntity entity) {
             if (entity == null) return;
-            components.remove(getEntityKey(entity));
+            UUID uuid = getPlayerUuid(entity);
+            if (uuid != null) {
+                removeByUuid(uuid);
+            } else {
+                release(components.remove(NPC_KEY, entity.getEntityId()));
+            }
         }
 
         /**
          * Remove a component by UUID.
          */
-        public void removeByUuid(java.util.UUID uuid) {
+        public void removeByUuid(UUID uuid) {
             if (uuid != null) {
-                components.remove(uuid.toString());
+                release(components.remove(uuid.getMostSignificantBits(), uuid.getLeastSignificantBits()));
             }
         }
 
         /**
          * Tick all components.
+         * Each world's shard is handed to that world's thread; a shard whose
+         * previous tick is still running is skipped rather than queued twice.
          */
         public void tickAll() {
-            for (PowerHolderComponent component : components.values()) {
-                component.tick();
+            unboundShard.tick();
+            for (Shard shard : shards.values()) {
+                if (shard.holders.isEmpty()) {
+                    shards.computeIfPresent(shard.world, (world, current) ->
+                        current.holders.isEmpty() ? null : current);
+                    continue;
+                }
+                if (!shard.inFlight.compareAndSet(false, true)) {
+                    continue;
+                }
+                try {
+                    shard.world.execute(() -> {
+                        try {
+                            shard.tick();
+                        } finally {
+                            shard.inFlight.set(false);
+                        }
+                    });
+                } catch (Exception e) {
+                    shard.inFlight.set(false);
+                    LOGGER.atWarning().log("Failed to schedule power tick for world %s: %s",
+                        shard.world, e.getMessage());
+                }
+            }
+        }
+
+        /**
+         * Run an action for every component on the thread that ticks it: one task per world
+         * on that world's thread, and components not bound to a world on the next server tick.
+         */
+        public void forEachInWorld(Consumer<PowerHolderComponent> action) {
+            AspectPowers.SCHEDULER.schedule(() -> unboundShard.forEach(action), 0);
+            for (Shard shard : shards.values()) {
+                try {
+                    shard.world.execute(() -> shard.forEach(action));
+                } catch (Exception e) {
+                    LOGGER.atWarning().log("Failed to schedule task for world %s: %s", shard.world, e.getMessage());
+                }
             }
         }
 
         /**
-         * Get all tracked components.
+         * Get a snapshot of all tracked components.
          */
         public Collection<PowerHolderComponent> getAll() {
             return components.values();
         }
 
         /**
-         * Get the key for an entity - UUID for players, entity ID for others.
+         * Get the number of worlds that currently hold components.
          */
-        private String getEntityKey(LivingEntity entity) {
-            if (entity instanceof arvem.aspectral.api.HytalePlayerAdapter playerAdapter) {
-                java.util.UUID uuid = playerAdapter.getUuid();
-                if (uuid != null) {
-                    return uuid.toString();
+        public int getShardCount() {
+            return shards.size();
+        }
+
+        /**
+         * Get the UUID that keys a player's component, or null for non-players.
+         */
+        private static UUID getPlayerUuid(LivingEntity entity) {
+            if (entity instanceof HytalePlayerAdapter playerAdapter) {
+                return playerAdapter.getUuid();
+            }
+            return null;
+        }
+
+        /**
+         * Find the world a component's entity lives in, following it across world changes.
+         */
+        private World resolveWorld(PowerHolderComponent component) {
+            if (component.entity instanceof HytaleLivingEntityAdapter adapter) {
+                try {
+                    // A rebind to a new world lands later on that world's thread; index whichever ref is current
+                    adapter.refresh();
+                    indexRef(component);
+                    return adapter.getWorld();
+                } catch (Exception e) {
+                    LOGGER.atFine().log("Could not resolve world for %s: %s", component.entity, e.getMessage());
                 }
             }
-            // Fallback to entity ID for non-players
-            return "entity:" + entity.getEntityId();
+            return null;
         }
-    }
-}
 
+        private void assignShard(PowerHolderComponent component, World world) {
+            indexRef(component);
+            Shard target;
+            if (world == null) {
+                target = unboundShard;
+                target.holders.add(component);
+            } else {
+                // Add inside compute so an empty shard cannot be dropped between lookup and add
+                target = shards.compute(world, (key, shard) -> {
+                    Shard result = shard != null ? shard : new Shard(key);
+                    result.holders.add(component);
+                    return result;
+                });
+            }
+            Shard previous = component.shard;
+            component.shard = target;
+            if (previous != null && previous != target) {
+                previous.holders.remove(component);
+            }
+        }
 
+        /**
+         * Drop a removed component from its shard and the reference index.
+         */
+        private void release(PowerHolderComponent component) {
+            if (component == null) {
+                return;
+            }
+            // Nothing scheduled for a removed entity may run or keep it reachable
+            component.taskScope.close();
+            if (component.shard != null) {
+                component.shard.holders.remove(component);
+                component.shard = null;
+            }
+            if (component.indexedRef != null) {
+                byRef.remove(component.indexedRef, component);
+                component.indexedRef = null;
+            }
+        }
+
+        /**
+         * Index a component under its entity's current reference.
+         */
+        /**
+         * Check if a component's entity may have changed worlds: its reference was invalidated,
+         * or a rebind replaced it since it was indexed. Cheap enough to run every tick.
+         */
+        private static boolean isMoving(PowerHolderComponent component) {
+            if (component.entity instanceof HytaleLivingEntityAdapter adapter) {
+                Ref<EntityStore> ref = adapter.getEntityRef();
+                return ref != component.indexedRef || !ref.isValid();
+            }
+            return false;
+        }
+
+        private void indexRef(PowerHolderComponent component) {
+            if (component.entity instanceof HytaleLivingEntityAdapter adapter) {
+                Ref<EntityStore> ref = adapter.getEntityRef();
+                Ref<EntityStore> previous = component.indexedRef;
+                if (ref == previous) {
+                    return;
+                }
+                byRef.put(ref, component);
+                component.indexedRef = ref;
+                if (previous != null) {
+                    byRef.remove(previous, component);
+                }
+            }
+        }
 
+        /**
+         * The components living in one world.
+         */
+        private final class Shard {
+            private final World world;
+            private final Set<PowerHolderComponent> holders = ConcurrentHashMap.newKeySet();
+            private final AtomicBoolean inFlight = new AtomicBoolean(false);
+
+            private Shard(World world) {
+                this.world = world;
+            }
+
+            /**
+             * Tick every component that is still in this world.
+             * Components whose entity moved are handed to their new world's shard
+             * and ticked there from the next tick on.
+             */
+            private void tick() {
+                for (PowerHolderComponent component : holders) {
+                    if (component.shard != this) {
+                        continue;
+                    }
+                    // Unbound holders keep looking for their world
+                    if (world == null || isMoving(component)) {
+                        World current = resolveWorld(component);
+                        if (current != world) {
+                            assignShard(component, current);
+                            continue;
+                        }
+                    }
+                    try {
+                        component.tick();
+                    } catch (Exception e) {
+                        LOGGER.atWarning().log("Error ticking powers for %s: %s", component.entity, e.getMessage());
+                    }
+                }
+            }
+
+            private void forEach(Consumer<PowerHolderComponent> action) {
+                for (PowerHolderComponent component : holders) {
+                    if (component.shard != this) {
+                        continue;
+                    }
+                    try {
+                        action.accept(component);
+                    } catch (Exception e) {
+                        LOGGER.atWarning().log("Error updating powers for %s: %s", component.entity, e.getMessage());
+                    }
+                }
+            }
+        }
+    }
+}
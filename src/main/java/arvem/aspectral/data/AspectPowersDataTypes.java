@@ -25,7 +25,7 @@ public class AspectPowersDataTypes {
         PowerTypeReference.class,
         SerializableDataTypes.STRING,
         PowerTypeReference::getIdentifier,
-        PowerTypeReference::new
+        PowerTypeReference::of
     );
 
     /**
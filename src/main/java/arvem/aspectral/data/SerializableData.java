@@ -8,19 +8,49 @@ import io.netty.buffer.ByteBuf;
 import java.util.HashMap;
 import java.util.LinkedHashMap;
 import java.util.Set;
+import java.util.concurrent.Callable;
 import java.util.function.Consumer;
 import java.util.function.Function;
 
 @SuppressWarnings("unused")
 public class SerializableData {
-    // Should be set to the current namespace of the file that is being read. Allows using * in identifiers.
-    public static String CURRENT_NAMESPACE;
-
-    // Should be set to the current path of the file that is being read. Allows using * in identifiers.
-    public static String CURRENT_PATH;
+    // Namespace and path of the file the current thread is reading, set through withContext.
+    // Per thread, so several files can be read in parallel. Allows using * in identifiers.
+    private static final ThreadLocal<String> CURRENT_NAMESPACE = new ThreadLocal<>();
+    private static final ThreadLocal<String> CURRENT_PATH = new ThreadLocal<>();
 
     private final LinkedHashMap<String, Field<?>> dataFields = new LinkedHashMap<>();
 
+    /**
+     * Run an action with the namespace and path of the file being read set for this thread.
+     */
+    public static <T> T withContext(String namespace, String path, Callable<T> action) throws Exception {
+        String previousNamespace = CURRENT_NAMESPACE.get();
+        String previousPath = CURRENT_PATH.get();
+        CURRENT_NAMESPACE.set(namespace);
+        CURRENT_PATH.set(path);
+        try {
+            return action.call();
+        } finally {
+            CURRENT_NAMESPACE.set(previousNamespace);
+            CURRENT_PATH.set(previousPath);
+        }
+    }
+
+    /**
+     * Get the namespace of the file this thread is reading, or null outside of {@link #withContext}.
+     */
+    public static String getCurrentNamespace() {
+        return CURRENT_NAMESPACE.get();
+    }
+
+    /**
+     * Get the path of the file this thread is reading, or null outside of {@link #withContext}.
+     */
+    public static String getCurrentPath() {
+        return CURRENT_PATH.get();
+    }
+
     public SerializableData add(String name, SerializableDataType<?> type) {
         dataFields.put(name, new Field<>(type));
         return this;
@@ -1,6 +1,7 @@
 package arvem.aspectral.event;
 
-import arvem.aspectral.api.HytalePlayerAdapter;
+import arvem.aspectral.AspectPowers;
+import arvem.aspectral.api.HytaleLivingEntityAdapter;
 import arvem.aspectral.component.PowerHolderComponent;
 import com.hypixel.hytale.component.Ref;
 import com.hypixel.hytale.component.Store;
@@ -12,11 +13,25 @@ import com.hypixel.hytale.server.core.universe.world.storage.EntityStore;
 /**
  * Global event listener that dispatches events to player powers.
  * Forwards Hytale server events to PowerHolderComponent.
+ * <p>
+ * Components are looked up directly by entity reference, so dispatching to a player
+ * allocates nothing and players without powers return immediately.
  */
 public class PowerEventDispatcher {
 
     private static final HytaleLogger LOGGER = HytaleLogger.forEnclosingClass();
 
+    /**
+     * Find the power holder for a player entity, or null if they have none.
+     */
+    private static PowerHolderComponent getComponent(Ref<EntityStore> ref, PlayerRef playerRef) {
+        AspectPowers aspectPowers = AspectPowers.getInstance();
+        if (aspectPowers == null) {
+            return null;
+        }
+        return aspectPowers.getComponentManager().getByRef(ref, playerRef);
+    }
+
     /**
      * Called when a player takes damage.
      * Forwards to all active powers.
@@ -32,10 +47,13 @@ public class PowerEventDispatcher {
                                          Ref<EntityStore> ref, Store<EntityStore> store,
                                          Object event) {
         try {
-            HytalePlayerAdapter adapter = new HytalePlayerAdapter(player, playerRef, ref, store);
-            PowerHolderComponent component = PowerHolderComponent.get(adapter);
+            PowerHolderComponent component = getComponent(ref, playerRef);
 
             if (component != null) {
+                // Health may already have changed this tick; conditions must not see the captured value
+                if (component.getEntity() instanceof HytaleLivingEntityAdapter adapter) {
+                    adapter.invalidateHealth();
+                }
                 return component.onDamage(event);
             }
         } catch (Exception e) {
@@ -59,8 +77,7 @@ public class PowerEventDispatcher {
                                          Ref<EntityStore> ref, Store<EntityStore> store,
                                          Object event) {
         try {
-            HytalePlayerAdapter adapter = new HytalePlayerAdapter(player, playerRef, ref, store);
-            PowerHolderComponent component = PowerHolderComponent.get(adapter);
+            PowerHolderComponent component = getComponent(ref, playerRef);
 
             if (component != null) {
                 return component.onAttack(event);
@@ -86,8 +103,7 @@ public class PowerEventDispatcher {
                                        Ref<EntityStore> ref, Store<EntityStore> store,
                                        Object event) {
         try {
-            HytalePlayerAdapter adapter = new HytalePlayerAdapter(player, playerRef, ref, store);
-            PowerHolderComponent component = PowerHolderComponent.get(adapter);
+            PowerHolderComponent component = getComponent(ref, playerRef);
 
             if (component != null) {
                 return component.onMove(event);
@@ -112,8 +128,7 @@ public class PowerEventDispatcher {
                                     Ref<EntityStore> ref, Store<EntityStore> store,
                                     String key) {
         try {
-            HytalePlayerAdapter adapter = new HytalePlayerAdapter(player, playerRef, ref, store);
-            PowerHolderComponent component = PowerHolderComponent.get(adapter);
+            PowerHolderComponent component = getComponent(ref, playerRef);
 
             if (component != null) {
                 component.onKeyPressed(key);
@@ -1,15 +1,15 @@
 package arvem.aspectral.layer;
 
 import arvem.aspectral.AspectPowers;
+import arvem.aspectral.util.DataFileLoader;
 import com.google.gson.JsonObject;
-import com.google.gson.JsonParser;
 import com.hypixel.hytale.logger.HytaleLogger;
 
-import java.io.File;
-import java.io.FileReader;
 import java.nio.file.Files;
 import java.nio.file.Path;
-import java.util.stream.Stream;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
 
 /**
  * Loads layer definitions from JSON files.
@@ -43,54 +43,83 @@ public class LayerLoader {
             }
         }
 
-        int loadedCount = 0;
-        try (Stream<Path> paths = Files.walk(layersDir, 1)) {
-            for (Path path : paths.filter(p -> p.toString().endsWith(".json")).toList()) {
-                File file = path.toFile();
-                LOGGER.atInfo().log("Found JSON file: %s", file.getName());
-
-                try {
-                    loadLayer(file);
-                    loadedCount++;
-                } catch (Exception e) {
-                    LOGGER.atSevere().withCause(e).log("Failed to load layer from: %s", file.getName());
-                }
-            }
+        DataFileLoader.Result<Layer> result;
+        try {
+            result = DataFileLoader.parseAll(layersDir, 1, AspectPowers.namespace(), this::parseLayer);
         } catch (Exception e) {
             LOGGER.atSevere().withCause(e).log("Failed to walk layers directory");
+            return;
+        }
+
+        // Register on this thread, in file order, so the registry does not depend on parse timing
+        for (DataFileLoader.Loaded<Layer> loaded : result.loaded()) {
+            registry.register(loaded.value());
+            LOGGER.atInfo().log("Layer registered: %s", loaded.value().getId());
         }
+        DataFileLoader.logFailures(LOGGER, "layer", result.failures());
 
         LOGGER.atInfo().log("Found %d JSON file(s), loaded %d layer(s) from %s",
-                loadedCount, loadedCount, layersDir.getFileName());
+                result.files(), result.loaded().size(), layersDir.getFileName());
     }
 
     /**
-     * Load a single layer from a JSON file.
+     * Reload the given layer files, leaving every other layer as it is.
+     * Files that no longer exist remove their layer; files that fail to parse keep the layer they had.
+     *
+     * @param layersDir Directory containing layer JSON files
+     * @param files The files that changed
+     * @return The layers that were added, replaced or removed
      */
-    private void loadLayer(File file) {
-        LOGGER.atInfo().log("Loading layer from: %s", file.getName());
-
-        try (FileReader reader = new FileReader(file)) {
-            JsonObject json = JsonParser.parseReader(reader).getAsJsonObject();
-
-            // Extract layer ID from filename (without .json extension)
-            String fileName = file.getName();
-            String layerId = AspectPowers.identifier(fileName.substring(0, fileName.length() - 5));
-
-            LOGGER.atInfo().log("Parsed layer ID: %s", layerId);
+    public List<DataFileLoader.Change<Layer>> reloadFiles(Path layersDir, Collection<Path> files) {
+        List<DataFileLoader.Change<Layer>> changes = new ArrayList<>();
+        List<Path> existing = new ArrayList<>();
+        for (Path file : files) {
+            if (Files.isRegularFile(file)) {
+                existing.add(file);
+                continue;
+            }
+            String layerId = getLayerId(file);
+            Layer previous = registry.unregister(layerId);
+            if (previous != null) {
+                changes.add(new DataFileLoader.Change<>(layerId, previous, null));
+                LOGGER.atInfo().log("Layer removed: %s", layerId);
+            }
+        }
 
-            // Create layer
-            Layer layer = new Layer(layerId, json);
+        DataFileLoader.Result<Layer> result;
+        try {
+            result = DataFileLoader.parseFiles(layersDir, existing, AspectPowers.namespace(), this::parseLayer);
+        } catch (Exception e) {
+            LOGGER.atSevere().withCause(e).log("Failed to reload layers");
+            return changes;
+        }
 
-            // Register
+        for (DataFileLoader.Loaded<Layer> loaded : result.loaded()) {
+            Layer layer = loaded.value();
+            Layer previous = registry.getLayer(layer.getId());
             registry.register(layer);
-            LOGGER.atInfo().log("Layer registered: %s", layerId);
-
-        } catch (Exception e) {
-            LOGGER.atSevere().withCause(e).log("Failed to parse layer JSON: %s", file.getName());
-            throw new RuntimeException("Failed to load layer: " + file.getName(), e);
+            changes.add(new DataFileLoader.Change<>(layer.getId(), previous, layer));
+            LOGGER.atInfo().log("Layer reloaded: %s", layer.getId());
         }
+        DataFileLoader.logFailures(LOGGER, "layer", result.failures());
+        return changes;
     }
-}
 
+    /**
+     * Parse a single layer from a JSON file. Runs on a loader thread, so it must not touch the registry.
+     */
+    private Layer parseLayer(Path file, JsonObject json) {
+        String layerId = getLayerId(file);
+
+        LOGGER.atInfo().log("Parsed layer ID: %s", layerId);
+        return new Layer(layerId, json);
+    }
 
+    /**
+     * Get the ID of the layer a file defines, from its name (without .json extension).
+     */
+    private static String getLayerId(Path file) {
+        String fileName = file.getFileName().toString();
+        return AspectPowers.identifier(fileName.substring(0, fileName.length() - 5));
+    }
+}
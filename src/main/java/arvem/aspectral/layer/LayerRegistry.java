@@ -18,7 +18,8 @@ public class LayerRegistry {
     private static LayerRegistry instance;
 
     private final Map<String, Layer> layers = new ConcurrentHashMap<>();
-    private final List<Layer> sortedLayers = new ArrayList<>();
+    // Replaced as a whole on change, so readers never see a list being rebuilt
+    private volatile List<Layer> sortedLayers = List.of();
 
     public LayerRegistry() {
     }
@@ -38,6 +39,19 @@ public class LayerRegistry {
         rebuildSortedList();
     }
 
+    /**
+     * Remove a layer.
+     *
+     * @return The removed layer, or null if there was none
+     */
+    public Layer unregister(String id) {
+        Layer removed = layers.remove(id);
+        if (removed != null) {
+            rebuildSortedList();
+        }
+        return removed;
+    }
+
     /**
      * Get a layer by ID.
      */
@@ -81,13 +95,13 @@ public class LayerRegistry {
      */
     public void clear() {
         layers.clear();
-        sortedLayers.clear();
+        sortedLayers = List.of();
     }
 
     private void rebuildSortedList() {
-        sortedLayers.clear();
-        sortedLayers.addAll(layers.values());
-        sortedLayers.sort(Comparator.comparingInt(Layer::getOrder));
+        List<Layer> sorted = new ArrayList<>(layers.values());
+        sorted.sort(Comparator.comparingInt(Layer::getOrder));
+        sortedLayers = List.copyOf(sorted);
     }
 }
 
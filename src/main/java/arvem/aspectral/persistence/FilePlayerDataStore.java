@@ -0,0 +1,122 @@
+package arvem.aspectral.persistence;
+
+import javax.annotation.Nullable;
+import java.io.IOException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+/**
+ * Stores each player's save in its own file, named after their UUID.
+ * <p>
+ * Falls back to the legacy JSON file when a player has no binary save yet,
+ * and removes that legacy file once the player is saved again. Files are
+ * replaced atomically so a crash mid-write never leaves a truncated save behind.
+ */
+public class FilePlayerDataStore implements PlayerDataStore {
+
+    private static final String SAVE_EXTENSION = ".dat";
+    private static final String LEGACY_SAVE_EXTENSION = ".json";
+
+    private final Path directory;
+
+    /**
+     * @param directory Directory holding the save files
+     */
+    public FilePlayerDataStore(Path directory) {
+        this.directory = directory;
+    }
+
+    @Nullable
+    @Override
+    public byte[] read(UUID uuid) throws IOException {
+        Path file = getPlayerFile(uuid);
+        if (!Files.exists(file)) {
+            file = getLegacyPlayerFile(uuid);
+            if (!Files.exists(file)) {
+                return null;
+            }
+        }
+        return Files.readAllBytes(file);
+    }
+
+    @Override
+    public void write(UUID uuid, byte[] data) throws IOException {
+        Path file = getPlayerFile(uuid);
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        Files.write(temp, data);
+        try {
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING);
+        }
+
+        // The binary file supersedes the legacy one
+        Files.deleteIfExists(getLegacyPlayerFile(uuid));
+    }
+
+    @Override
+    public void delete(UUID uuid) throws IOException {
+        Files.deleteIfExists(getPlayerFile(uuid));
+        Files.deleteIfExists(getLegacyPlayerFile(uuid));
+    }
+
+    @Override
+    public Set<UUID> getPlayers() throws IOException {
+        Set<UUID> players = new HashSet<>();
+        try (Stream<Path> files = Files.list(directory)) {
+            files.forEach(file -> {
+                UUID uuid = getSaveUuid(file);
+                if (uuid != null) {
+                    players.add(uuid);
+                }
+            });
+        }
+        return players;
+    }
+
+    @Override
+    public void clear() throws IOException {
+        for (UUID uuid : getPlayers()) {
+            delete(uuid);
+        }
+    }
+
+    /**
+     * Get the file path for a player's power data.
+     */
+    private Path getPlayerFile(UUID uuid) {
+        return directory.resolve(uuid.toString() + SAVE_EXTENSION);
+    }
+
+    /**
+     * Get the file path for a player's power data in the legacy JSON format.
+     */
+    private Path getLegacyPlayerFile(UUID uuid) {
+        return directory.resolve(uuid.toString() + LEGACY_SAVE_EXTENSION);
+    }
+
+    /**
+     * Get the UUID of the player a save file belongs to, or null if it is not a save file.
+     */
+    @Nullable
+    private static UUID getSaveUuid(Path file) {
+        String name = file.getFileName().toString();
+        String extension = name.endsWith(SAVE_EXTENSION) ? SAVE_EXTENSION
+            : name.endsWith(LEGACY_SAVE_EXTENSION) ? LEGACY_SAVE_EXTENSION
+            : null;
+        if (extension == null) {
+            return null;
+        }
+        try {
+            return UUID.fromString(name.substring(0, name.length() - extension.length()));
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,370 @@
+package arvem.aspectral.persistence;
+
+import com.hypixel.hytale.logger.HytaleLogger;
+
+import javax.annotation.Nullable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Player data store shared by several servers through a common directory,
+ * coordinated with file locks.
+ * <p>
+ * Each player has one record file holding a version, the server currently
+ * holding their lease, when that lease expires, and the save itself. Every
+ * access locks the file, so servers never see a half-written record. A new save
+ * is written next to the current one and synced before the header is switched
+ * over to it, so a crash mid-write leaves the previous save intact.
+ * <p>
+ * A server takes the lease in {@link #acquire(UUID)} when a player connects and
+ * gives it up in {@link #release(UUID)} after their last save, so a player
+ * moving between servers is only read once the server they left has written
+ * its final save. Writes are optimistic: a save is rejected with a
+ * {@link StaleSaveException} if the record's version moved on since this server
+ * took the lease or last wrote it, if another server holds the lease, or if this
+ * server never took the lease at all. Only {@link #writeUnclaimed(UUID, byte[])},
+ * used when copying saves between stores, writes without one. Held leases are
+ * renewed in the background; the lease of a crashed server expires on its own.
+ * <p>
+ * Meant as a stand-in for a networked store when testing server handoff: point
+ * several local servers at the same directory.
+ */
+public class LockingFilePlayerDataStore implements PlayerDataStore {
+
+    private static final HytaleLogger LOGGER = HytaleLogger.forEnclosingClass();
+
+    public static final String DIRECTORY = "shared";
+
+    private static final String RECORD_EXTENSION = ".rec";
+
+    // "ASP2" in ASCII
+    private static final int MAGIC = 0x41535032;
+
+    // Magic (4), version (8), lease holder (16), lease expiry (8), data offset (8), data length (4)
+    private static final int HEADER_SIZE = 48;
+
+    private static final UUID NO_HOLDER = new UUID(0L, 0L);
+
+    // How long to wait between attempts to take a lease another server holds
+    private static final long ACQUIRE_RETRY_MILLIS = 100;
+
+    private record Header(long version, UUID holder, long expiry, long offset, int length) {
+        Header withLease(UUID holder, long expiry) {
+            return new Header(version, holder, expiry, offset, length);
+        }
+    }
+
+    private final Path directory;
+    private final UUID serverId;
+    private final Duration leaseDuration;
+
+    // Record version when this server took the lease or last wrote, per leased player
+    private final Map<UUID, Long> leases = new ConcurrentHashMap<>();
+
+    // Players whose lease another server took over; their saves are refused until acquired again
+    private final Set<UUID> revoked = ConcurrentHashMap.newKeySet();
+
+    private final ScheduledExecutorService renewer;
+
+    /**
+     * @param directory Directory shared by all servers
+     * @param serverId Stable ID of this server, so a restarted server gets its own leases back
+     * @param leaseDuration How long a lease lasts without being renewed
+     */
+    public LockingFilePlayerDataStore(Path directory, UUID serverId, Duration leaseDuration) throws IOException {
+        this.directory = directory;
+        this.serverId = serverId;
+        this.leaseDuration = leaseDuration;
+        Files.createDirectories(directory);
+
+        this.renewer = Executors.newSingleThreadScheduledExecutor(
+            Thread.ofPlatform().name("aspectral-lease-renewer").daemon(true).factory());
+        long period = Math.max(1, leaseDuration.toMillis() / 3);
+        renewer.scheduleAtFixedRate(this::renewLeases, period, period, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void acquire(UUID uuid) throws IOException {
+        long deadline = System.currentTimeMillis() + leaseDuration.toMillis() * 2;
+        while (!tryAcquire(uuid)) {
+            if (System.currentTimeMillis() > deadline) {
+                throw new StaleSaveException(uuid, "Timed out waiting for the lease of player " + uuid);
+            }
+            try {
+                Thread.sleep(ACQUIRE_RETRY_MILLIS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException("Interrupted while waiting for the lease of player " + uuid, e);
+            }
+        }
+    }
+
+    @Nullable
+    @Override
+    public synchronized byte[] read(UUID uuid) throws IOException {
+        Path file = getRecordFile(uuid);
+        if (!Files.exists(file)) {
+            return null;
+        }
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE);
+             FileLock ignored = channel.lock()) {
+            Header header = readHeader(channel);
+            if (header == null || header.length() == 0) {
+                return null;
+            }
+            ByteBuffer data = ByteBuffer.allocate(header.length());
+            readFully(channel, data, header.offset());
+            return data.array();
+        }
+    }
+
+    @Override
+    public void write(UUID uuid, byte[] data) throws IOException {
+        update(uuid, data, false);
+    }
+
+    @Override
+    public void writeUnclaimed(UUID uuid, byte[] data) throws IOException {
+        update(uuid, data, true);
+    }
+
+    @Override
+    public void delete(UUID uuid) throws IOException {
+        // The record stays so its version keeps counting up
+        update(uuid, new byte[0], false);
+    }
+
+    @Override
+    public synchronized void release(UUID uuid) throws IOException {
+        if (leases.remove(uuid) == null) {
+            return;
+        }
+        try (FileChannel channel = openRecord(uuid);
+             FileLock ignored = channel.lock()) {
+            Header header = readHeader(channel);
+            if (header != null && header.holder().equals(serverId)) {
+                writeHeader(channel, header.withLease(NO_HOLDER, 0L));
+                channel.force(false);
+            }
+        }
+    }
+
+    @Override
+    public boolean isShared() {
+        return true;
+    }
+
+    @Override
+    public synchronized Set<UUID> getPlayers() throws IOException {
+        Set<UUID> players = new HashSet<>();
+        try (Stream<Path> files = Files.list(directory)) {
+            for (Path file : (Iterable<Path>) files::iterator) {
+                String name = file.getFileName().toString();
+                if (!name.endsWith(RECORD_EXTENSION)) {
+                    continue;
+                }
+                try {
+                    UUID uuid = UUID.fromString(name.substring(0, name.length() - RECORD_EXTENSION.length()));
+                    if (read(uuid) != null) {
+                        players.add(uuid);
+                    }
+                } catch (IllegalArgumentException ignored) {
+                    // Not a record
+                }
+            }
+        }
+        return players;
+    }
+
+    @Override
+    public synchronized void clear() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            for (Path file : (Iterable<Path>) files::iterator) {
+                if (file.getFileName().toString().endsWith(RECORD_EXTENSION)) {
+                    Files.deleteIfExists(file);
+                }
+            }
+        }
+        leases.clear();
+        revoked.clear();
+        Files.deleteIfExists(directory);
+    }
+
+    @Override
+    public void close() throws IOException {
+        renewer.shutdownNow();
+        for (UUID uuid : Set.copyOf(leases.keySet())) {
+            release(uuid);
+        }
+    }
+
+    /**
+     * Take a player's lease if no other server holds an unexpired one.
+     */
+    private synchronized boolean tryAcquire(UUID uuid) throws IOException {
+        try (FileChannel channel = openRecord(uuid);
+             FileLock ignored = channel.lock()) {
+            long now = System.currentTimeMillis();
+            Header header = readHeader(channel);
+            if (header == null) {
+                header = new Header(0L, NO_HOLDER, 0L, HEADER_SIZE, 0);
+            } else if (!header.holder().equals(NO_HOLDER) && !header.holder().equals(serverId) && header.expiry() > now) {
+                return false;
+            }
+            writeHeader(channel, header.withLease(serverId, now + leaseDuration.toMillis()));
+            channel.force(false);
+            leases.put(uuid, header.version());
+            revoked.remove(uuid);
+            return true;
+        }
+    }
+
+    /**
+     * Replace a player's save, if this server holds the lease and saw the newest version.
+     *
+     * @param unclaimed Whether to also write players this server holds no lease for, as long as no other server does
+     */
+    private synchronized void update(UUID uuid, byte[] data, boolean unclaimed) throws IOException {
+        try (FileChannel channel = openRecord(uuid);
+             FileLock ignored = channel.lock()) {
+            long now = System.currentTimeMillis();
+            Header header = readHeader(channel);
+            if (header == null) {
+                header = new Header(0L, NO_HOLDER, 0L, HEADER_SIZE, 0);
+            }
+
+            Long expected = leases.get(uuid);
+            if (revoked.contains(uuid)) {
+                throw new StaleSaveException(uuid, "Lost the lease of player " + uuid);
+            }
+            boolean heldByOther = !header.holder().equals(NO_HOLDER) && !header.holder().equals(serverId) && header.expiry() > now;
+            if (heldByOther) {
+                throw new StaleSaveException(uuid, "Player " + uuid + " is leased by server " + header.holder());
+            }
+            if (expected == null && !unclaimed) {
+                // Whatever this server holds for the player was never read under a lease
+                throw new StaleSaveException(uuid, "Player " + uuid + " was never acquired by this server");
+            }
+            if (expected != null && expected != header.version()) {
+                throw new StaleSaveException(uuid, "Save of player " + uuid + " was changed by another server");
+            }
+
+            // Write the new save where it does not overlap the current one and sync it,
+            // so the header only ever points at a complete save
+            long offset = HEADER_SIZE + data.length <= header.offset()
+                ? HEADER_SIZE
+                : Math.max(HEADER_SIZE, header.offset() + header.length());
+            writeFully(channel, ByteBuffer.wrap(data), offset);
+            channel.force(false);
+
+            // Players without a lease (such as during migration) stay unclaimed
+            boolean leased = expected != null;
+            long version = header.version() + 1;
+            writeHeader(channel, new Header(version,
+                leased ? serverId : NO_HOLDER,
+                leased ? now + leaseDuration.toMillis() : 0L,
+                offset, data.length));
+            channel.force(false);
+
+            // The previous save is no longer referenced; drop it if it was at the end
+            if (offset + data.length < channel.size() && offset == HEADER_SIZE) {
+                channel.truncate(offset + data.length);
+            }
+            if (leased) {
+                leases.put(uuid, version);
+            }
+        }
+    }
+
+    private synchronized void renewLeases() {
+        long expiry = System.currentTimeMillis() + leaseDuration.toMillis();
+        for (UUID uuid : Set.copyOf(leases.keySet())) {
+            try (FileChannel channel = openRecord(uuid);
+                 FileLock ignored = channel.lock()) {
+                Header header = readHeader(channel);
+                if (header != null && header.holder().equals(serverId)) {
+                    writeHeader(channel, header.withLease(serverId, expiry));
+                } else {
+                    // Expired and taken over while we were not looking
+                    leases.remove(uuid);
+                    revoked.add(uuid);
+                    LOGGER.atWarning().log("Lost the lease of player %s", uuid);
+                }
+            } catch (Exception e) {
+                LOGGER.atWarning().log("Failed to renew the lease of player %s: %s", uuid, e.getMessage());
+            }
+        }
+    }
+
+    private FileChannel openRecord(UUID uuid) throws IOException {
+        return FileChannel.open(getRecordFile(uuid),
+            StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+    }
+
+    @Nullable
+    private static Header readHeader(FileChannel channel) throws IOException {
+        if (channel.size() < HEADER_SIZE) {
+            return null;
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(HEADER_SIZE);
+        readFully(channel, buffer, 0);
+        buffer.flip();
+        if (buffer.getInt() != MAGIC) {
+            throw new IOException("Not a player record");
+        }
+        Header header = new Header(buffer.getLong(), new UUID(buffer.getLong(), buffer.getLong()), buffer.getLong(),
+            buffer.getLong(), buffer.getInt());
+        if (header.offset() < HEADER_SIZE || header.offset() + header.length() > channel.size()) {
+            throw new IOException("Corrupt player record header");
+        }
+        return header;
+    }
+
+    private static void writeHeader(FileChannel channel, Header header) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(HEADER_SIZE);
+        buffer.putInt(MAGIC);
+        buffer.putLong(header.version());
+        buffer.putLong(header.holder().getMostSignificantBits());
+        buffer.putLong(header.holder().getLeastSignificantBits());
+        buffer.putLong(header.expiry());
+        buffer.putLong(header.offset());
+        buffer.putInt(header.length());
+        buffer.flip();
+        writeFully(channel, buffer, 0);
+    }
+
+    private static void readFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            int n = channel.read(buffer, position);
+            if (n < 0) {
+                throw new IOException("Truncated player record");
+            }
+            position += n;
+        }
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            position += channel.write(buffer, position);
+        }
+    }
+
+    private Path getRecordFile(UUID uuid) {
+        return directory.resolve(uuid.toString() + RECORD_EXTENSION);
+    }
+}
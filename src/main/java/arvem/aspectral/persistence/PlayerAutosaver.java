@@ -0,0 +1,87 @@
+package arvem.aspectral.persistence;
+
+import arvem.aspectral.api.HytalePlayerAdapter;
+
+import java.util.Map;
+import java.util.Queue;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.function.Consumer;
+
+/**
+ * Rate-limited autosave of players whose state changed.
+ * <p>
+ * A player is queued the moment their state first becomes dirty, and saved a
+ * fixed delay later, so every change since the previous save is written in one
+ * go. Players dirtied at different times come due at different ticks, and at
+ * most a few saves start per tick, so a burst of changes is spread out. Only
+ * queued players are looked at, so the cost follows what changed rather than
+ * how many players are online.
+ * <p>
+ * Entries are keyed by UUID. The player handed to the saver is the one most
+ * recently scheduled, so a player who reconnected while queued is saved through
+ * their new entity rather than the one they left behind.
+ */
+public class PlayerAutosaver {
+
+    private record Entry(UUID uuid, long dueTick) {
+    }
+
+    private final long delayTicks;
+    private final int maxSavesPerTick;
+    private final Consumer<HytalePlayerAdapter> saver;
+
+    // Entries are added with increasing due ticks, so the head is always the first due
+    private final Queue<Entry> queue = new ConcurrentLinkedQueue<>();
+    // Latest entity scheduled per queued player
+    private final Map<UUID, HytalePlayerAdapter> queued = new ConcurrentHashMap<>();
+
+    /**
+     * @param delayTicks Ticks between a player becoming dirty and their autosave
+     * @param maxSavesPerTick Most autosaves started in one tick
+     * @param saver Starts the save of a player; called on the ticking thread
+     */
+    public PlayerAutosaver(long delayTicks, int maxSavesPerTick, Consumer<HytalePlayerAdapter> saver) {
+        this.delayTicks = delayTicks;
+        this.maxSavesPerTick = maxSavesPerTick;
+        this.saver = saver;
+    }
+
+    /**
+     * Queue a player for autosave. A player queued already keeps their due tick,
+     * but is saved through this entity.
+     */
+    public void schedule(HytalePlayerAdapter player, long currentTick) {
+        UUID uuid = player.getUuid();
+        if (uuid != null && queued.put(uuid, player) == null) {
+            queue.add(new Entry(uuid, currentTick + delayTicks));
+        }
+    }
+
+    /**
+     * Start the saves that are due, up to the per-tick limit.
+     */
+    public void tick(long currentTick) {
+        for (int i = 0; i < maxSavesPerTick; i++) {
+            Entry head = queue.peek();
+            if (head == null || head.dueTick() > currentTick) {
+                return;
+            }
+            queue.poll();
+
+            // Dequeue first, so a change made during the save queues the player again
+            HytalePlayerAdapter player = queued.remove(head.uuid());
+            if (player != null) {
+                saver.accept(player);
+            }
+        }
+    }
+
+    /**
+     * Get the number of players waiting for an autosave.
+     */
+    public int getQueuedCount() {
+        return queued.size();
+    }
+}
@@ -0,0 +1,64 @@
+package arvem.aspectral.persistence;
+
+import com.google.gson.JsonObject;
+
+import javax.annotation.Nullable;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Bounded cache of player save data, evicting the least recently used entry.
+ * <p>
+ * Keeps the data of recently seen players in memory so a quick rejoin skips the
+ * disk, without growing with every player that ever joined.
+ */
+public class PlayerDataCache {
+
+    private final int maxEntries;
+    private final Map<UUID, JsonObject> entries;
+
+    /**
+     * @param maxEntries Number of players to keep at most
+     */
+    public PlayerDataCache(int maxEntries) {
+        this.maxEntries = maxEntries;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<UUID, JsonObject> eldest) {
+                return size() > PlayerDataCache.this.maxEntries;
+            }
+        };
+    }
+
+    @Nullable
+    public synchronized JsonObject get(UUID uuid) {
+        return entries.get(uuid);
+    }
+
+    public synchronized void put(UUID uuid, JsonObject data) {
+        entries.put(uuid, data);
+    }
+
+    /**
+     * Cache the data unless the player already has an entry.
+     *
+     * @return The data now cached for the player
+     */
+    public synchronized JsonObject putIfAbsent(UUID uuid, JsonObject data) {
+        JsonObject existing = entries.putIfAbsent(uuid, data);
+        return existing != null ? existing : data;
+    }
+
+    public synchronized void remove(UUID uuid) {
+        entries.remove(uuid);
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    public int getMaxEntries() {
+        return maxEntries;
+    }
+}
@@ -0,0 +1,86 @@
+package arvem.aspectral.persistence;
+
+import javax.annotation.Nullable;
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Storage backend for encoded player saves.
+ * <p>
+ * Stores hold the bytes produced by {@link PlayerSaveFormat} (or legacy JSON)
+ * and know nothing about their content. Writes, deletes, flushes and releases
+ * come from the single {@link PlayerSaveWriter} thread; reads and acquires may
+ * come from any thread.
+ */
+public interface PlayerDataStore extends Closeable {
+
+    /**
+     * Read a player's save.
+     *
+     * @return The stored bytes, or null if the player has no save
+     */
+    @Nullable
+    byte[] read(UUID uuid) throws IOException;
+
+    /**
+     * Replace a player's save. The write only has to be durable after {@link #flush()}.
+     */
+    void write(UUID uuid, byte[] data) throws IOException;
+
+    /**
+     * Replace the save of a player this server may not have claimed, such as when
+     * copying saves between stores. Shared stores still refuse players another server holds.
+     */
+    default void writeUnclaimed(UUID uuid, byte[] data) throws IOException {
+        write(uuid, data);
+    }
+
+    /**
+     * Remove a player's save, if any.
+     */
+    void delete(UUID uuid) throws IOException;
+
+    /**
+     * Get every player that has a save in this store.
+     */
+    Set<UUID> getPlayers() throws IOException;
+
+    /**
+     * Make every write so far durable. Called once the writer has no more queued saves,
+     * so a burst of saves shares a single sync.
+     */
+    default void flush() throws IOException {
+    }
+
+    /**
+     * Claim a player for this server before their save is read, waiting until the
+     * server they come from has written its last save and released them.
+     * Only stores shared between servers need to do anything here.
+     */
+    default void acquire(UUID uuid) throws IOException {
+    }
+
+    /**
+     * Give up the claim on a player once their last save was written.
+     */
+    default void release(UUID uuid) throws IOException {
+    }
+
+    /**
+     * Check if other servers write to this store too, so saves cached locally may be stale.
+     */
+    default boolean isShared() {
+        return false;
+    }
+
+    /**
+     * Remove every save in this store, after its data was migrated elsewhere.
+     */
+    void clear() throws IOException;
+
+    @Override
+    default void close() throws IOException {
+    }
+}
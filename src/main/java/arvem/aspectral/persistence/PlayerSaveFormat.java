@@ -0,0 +1,348 @@
+package arvem.aspectral.persistence;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonNull;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import com.google.gson.JsonPrimitive;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Compact binary encoding of player save data.
+ * <p>
+ * Layout: magic, version, flags, then the payload, Deflate-compressed if the
+ * flag is set. The payload starts with a table of every distinct string in the
+ * save (power IDs, sources, field names), followed by the save tree in which
+ * strings are referenced by their index in the table. Integers are written as
+ * variable-length numbers, so most fields take one or two bytes.
+ * <p>
+ * Decoding also accepts legacy JSON files, recognized by the missing magic.
+ */
+public final class PlayerSaveFormat {
+
+    // "ASPS" in ASCII
+    private static final int MAGIC = 0x41535053;
+    private static final byte VERSION = 1;
+
+    private static final byte FLAG_DEFLATE = 1;
+
+    private static final byte TAG_NULL = 0;
+    private static final byte TAG_FALSE = 1;
+    private static final byte TAG_TRUE = 2;
+    private static final byte TAG_LONG = 3;
+    private static final byte TAG_DOUBLE = 4;
+    private static final byte TAG_STRING = 5;
+    private static final byte TAG_ARRAY = 6;
+    private static final byte TAG_OBJECT = 7;
+
+    private PlayerSaveFormat() {
+    }
+
+    /**
+     * Encode save data to the binary format.
+     *
+     * @param data The save data
+     * @param compress Whether to Deflate the payload
+     */
+    public static byte[] encode(JsonObject data, boolean compress) {
+        Map<String, Integer> strings = new LinkedHashMap<>();
+        ByteBuf tree = Unpooled.buffer();
+        ByteBuf payload = Unpooled.buffer();
+        try {
+            writeElement(tree, data, strings);
+
+            writeVarInt(payload, strings.size());
+            for (String string : strings.keySet()) {
+                byte[] bytes = string.getBytes(StandardCharsets.UTF_8);
+                writeVarInt(payload, bytes.length);
+                payload.writeBytes(bytes);
+            }
+            payload.writeBytes(tree);
+
+            byte[] raw = new byte[payload.readableBytes()];
+            payload.readBytes(raw);
+
+            ByteBuf out = Unpooled.buffer(raw.length + 16);
+            try {
+                out.writeInt(MAGIC);
+                out.writeByte(VERSION);
+                out.writeByte(compress ? FLAG_DEFLATE : 0);
+                if (compress) {
+                    out.writeInt(raw.length);
+                    out.writeBytes(deflate(raw));
+                } else {
+                    out.writeBytes(raw);
+                }
+                byte[] result = new byte[out.readableBytes()];
+                out.readBytes(result);
+                return result;
+            } finally {
+                out.release();
+            }
+        } finally {
+            tree.release();
+            payload.release();
+        }
+    }
+
+    /**
+     * Decode save data in either the binary or the legacy JSON format.
+     *
+     * @throws IOException If the data is malformed or from a newer version
+     */
+    public static JsonObject decode(byte[] bytes) throws IOException {
+        if (!isBinary(bytes)) {
+            return JsonParser.parseString(new String(bytes, StandardCharsets.UTF_8)).getAsJsonObject();
+        }
+
+        ByteBuf in = Unpooled.wrappedBuffer(bytes);
+        try {
+            in.skipBytes(4);
+            byte version = in.readByte();
+            if (version > VERSION) {
+                throw new IOException("Unsupported save version " + version);
+            }
+            byte flags = in.readByte();
+
+            ByteBuf payload = in;
+            if ((flags & FLAG_DEFLATE) != 0) {
+                int length = in.readInt();
+                byte[] compressed = new byte[in.readableBytes()];
+                in.readBytes(compressed);
+                payload = Unpooled.wrappedBuffer(inflate(compressed, length));
+            }
+
+            int count = readVarInt(payload);
+            List<String> strings = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                byte[] string = new byte[readVarInt(payload)];
+                payload.readBytes(string);
+                strings.add(new String(string, StandardCharsets.UTF_8));
+            }
+
+            JsonElement root = readElement(payload, strings);
+            if (!root.isJsonObject()) {
+                throw new IOException("Save root is not an object");
+            }
+            return root.getAsJsonObject();
+        } catch (IndexOutOfBoundsException e) {
+            throw new IOException("Truncated save data", e);
+        } finally {
+            in.release();
+        }
+    }
+
+    /**
+     * Check if data is in the binary format rather than legacy JSON.
+     */
+    public static boolean isBinary(byte[] bytes) {
+        return bytes.length >= 6
+            && ((bytes[0] & 0xFF) << 24 | (bytes[1] & 0xFF) << 16 | (bytes[2] & 0xFF) << 8 | (bytes[3] & 0xFF)) == MAGIC;
+    }
+
+    private static void writeElement(ByteBuf buf, JsonElement element, Map<String, Integer> strings) {
+        if (element == null || element.isJsonNull()) {
+            buf.writeByte(TAG_NULL);
+        } else if (element.isJsonObject()) {
+            JsonObject object = element.getAsJsonObject();
+            buf.writeByte(TAG_OBJECT);
+            writeVarInt(buf, object.size());
+            for (Map.Entry<String, JsonElement> entry : object.entrySet()) {
+                writeVarInt(buf, intern(strings, entry.getKey()));
+                writeElement(buf, entry.getValue(), strings);
+            }
+        } else if (element.isJsonArray()) {
+            JsonArray array = element.getAsJsonArray();
+            buf.writeByte(TAG_ARRAY);
+            writeVarInt(buf, array.size());
+            for (JsonElement child : array) {
+                writeElement(buf, child, strings);
+            }
+        } else {
+            JsonPrimitive primitive = element.getAsJsonPrimitive();
+            if (primitive.isBoolean()) {
+                buf.writeByte(primitive.getAsBoolean() ? TAG_TRUE : TAG_FALSE);
+            } else if (primitive.isNumber()) {
+                writeNumber(buf, primitive.getAsNumber());
+            } else {
+                buf.writeByte(TAG_STRING);
+                writeVarInt(buf, intern(strings, primitive.getAsString()));
+            }
+        }
+    }
+
+    private static void writeNumber(ByteBuf buf, Number number) {
+        if (number instanceof Integer || number instanceof Long || number instanceof Short || number instanceof Byte) {
+            buf.writeByte(TAG_LONG);
+            writeVarLong(buf, number.longValue());
+            return;
+        }
+        if (!(number instanceof Double) && !(number instanceof Float)) {
+            // Numbers parsed from legacy JSON keep their text; integers stay integers
+            try {
+                long value = Long.parseLong(number.toString());
+                buf.writeByte(TAG_LONG);
+                writeVarLong(buf, value);
+                return;
+            } catch (NumberFormatException ignored) {
+                // Not an integer
+            }
+        }
+        buf.writeByte(TAG_DOUBLE);
+        buf.writeDouble(number.doubleValue());
+    }
+
+    private static JsonElement readElement(ByteBuf buf, List<String> strings) throws IOException {
+        byte tag = buf.readByte();
+        switch (tag) {
+            case TAG_NULL:
+                return JsonNull.INSTANCE;
+            case TAG_FALSE:
+                return new JsonPrimitive(false);
+            case TAG_TRUE:
+                return new JsonPrimitive(true);
+            case TAG_LONG:
+                return new JsonPrimitive(readVarLong(buf));
+            case TAG_DOUBLE:
+                return new JsonPrimitive(buf.readDouble());
+            case TAG_STRING:
+                return new JsonPrimitive(lookup(strings, readVarInt(buf)));
+            case TAG_ARRAY: {
+                int size = readVarInt(buf);
+                JsonArray array = new JsonArray(size);
+                for (int i = 0; i < size; i++) {
+                    array.add(readElement(buf, strings));
+                }
+                return array;
+            }
+            case TAG_OBJECT: {
+                int size = readVarInt(buf);
+                JsonObject object = new JsonObject();
+                for (int i = 0; i < size; i++) {
+                    String key = lookup(strings, readVarInt(buf));
+                    object.add(key, readElement(buf, strings));
+                }
+                return object;
+            }
+            default:
+                throw new IOException("Unknown save tag " + tag);
+        }
+    }
+
+    private static int intern(Map<String, Integer> strings, String string) {
+        Integer index = strings.get(string);
+        if (index == null) {
+            index = strings.size();
+            strings.put(string, index);
+        }
+        return index;
+    }
+
+    private static String lookup(List<String> strings, int index) throws IOException {
+        if (index < 0 || index >= strings.size()) {
+            throw new IOException("String index " + index + " out of range");
+        }
+        return strings.get(index);
+    }
+
+    private static byte[] deflate(byte[] raw) {
+        Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+        try {
+            deflater.setInput(raw);
+            deflater.finish();
+            ByteBuf out = Unpooled.buffer(raw.length / 2 + 16);
+            try {
+                byte[] chunk = new byte[1024];
+                while (!deflater.finished()) {
+                    int n = deflater.deflate(chunk);
+                    out.writeBytes(chunk, 0, n);
+                }
+                byte[] result = new byte[out.readableBytes()];
+                out.readBytes(result);
+                return result;
+            } finally {
+                out.release();
+            }
+        } finally {
+            deflater.end();
+        }
+    }
+
+    private static byte[] inflate(byte[] compressed, int length) throws IOException {
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(compressed);
+            byte[] raw = new byte[length];
+            int read = 0;
+            while (read < length && !inflater.finished()) {
+                int n = inflater.inflate(raw, read, length - read);
+                if (n == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    break;
+                }
+                read += n;
+            }
+            if (read != length) {
+                throw new IOException("Truncated compressed save data");
+            }
+            return raw;
+        } catch (DataFormatException e) {
+            throw new IOException("Corrupt compressed save data", e);
+        } finally {
+            inflater.end();
+        }
+    }
+
+    private static void writeVarInt(ByteBuf buf, int value) {
+        while ((value & ~0x7F) != 0) {
+            buf.writeByte((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        buf.writeByte(value);
+    }
+
+    private static int readVarInt(ByteBuf buf) throws IOException {
+        int value = 0;
+        for (int shift = 0; shift < 35; shift += 7) {
+            byte b = buf.readByte();
+            value |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IOException("VarInt too long");
+    }
+
+    // Zigzag-encoded so small negative numbers stay short too
+    private static void writeVarLong(ByteBuf buf, long value) {
+        long zigzag = (value << 1) ^ (value >> 63);
+        while ((zigzag & ~0x7FL) != 0) {
+            buf.writeByte((int) ((zigzag & 0x7F) | 0x80));
+            zigzag >>>= 7;
+        }
+        buf.writeByte((int) zigzag);
+    }
+
+    private static long readVarLong(ByteBuf buf) throws IOException {
+        long zigzag = 0;
+        for (int shift = 0; shift < 70; shift += 7) {
+            byte b = buf.readByte();
+            zigzag |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return (zigzag >>> 1) ^ -(zigzag & 1);
+            }
+        }
+        throw new IOException("VarLong too long");
+    }
+}
@@ -0,0 +1,352 @@
+package arvem.aspectral.persistence;
+
+import com.google.gson.JsonObject;
+import com.hypixel.hytale.logger.HytaleLogger;
+
+import javax.annotation.Nullable;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Write-behind writer for player saves.
+ * <p>
+ * World threads hand over an already captured snapshot and return immediately;
+ * encoding and I/O happen on a single background thread. Saves of the same
+ * player that pile up before the writer gets to them are coalesced, so only the
+ * newest snapshot is written. The store is flushed whenever the queue runs dry,
+ * so a burst of saves is committed together. A save that fails to write is
+ * queued again and retried a few times with growing delays, unless a newer one
+ * replaced it; saves a shared store rejected as stale are not retried.
+ * <p>
+ * Saves are written in {@link PlayerSaveFormat} to a {@link PlayerDataStore}.
+ * Everything that modifies the store runs on the writer thread, including
+ * conversions and migrations, so they never race a save.
+ */
+public class PlayerSaveWriter {
+
+    private static final HytaleLogger LOGGER = HytaleLogger.forEnclosingClass();
+
+    // Marks a pending delete in the queue, since the map cannot hold null
+    private static final JsonObject DELETE = new JsonObject();
+
+    // How often a failed write is retried, and the delay before the first retry, doubled for each one after
+    private static final int MAX_RETRIES = 5;
+    private static final long RETRY_DELAY_MILLIS = 1000;
+
+    private final boolean compress;
+    private final ScheduledExecutorService executor;
+
+    // Newest snapshot per player that has not been written yet
+    private final Map<UUID, JsonObject> pending = new ConcurrentHashMap<>();
+
+    // Only replaced on the writer thread, by a migration
+    private volatile PlayerDataStore store;
+
+    /**
+     * @param store Store the saves are written to
+     * @param compress Whether to compress written saves
+     */
+    public PlayerSaveWriter(PlayerDataStore store, boolean compress) {
+        this.store = store;
+        this.compress = compress;
+        this.executor = Executors.newSingleThreadScheduledExecutor(
+            Thread.ofPlatform().name("aspectral-save-writer").daemon(true).factory());
+    }
+
+    /**
+     * Queue a snapshot to be written. The snapshot must not be modified afterwards.
+     *
+     * @param uuid The player's UUID
+     * @param snapshot The data to write, or null to delete the player's save
+     */
+    public void submit(UUID uuid, @Nullable JsonObject snapshot) {
+        // Only the first save of a burst schedules a write; later ones just replace the snapshot
+        if (pending.put(uuid, snapshot != null ? snapshot : DELETE) == null) {
+            try {
+                executor.execute(() -> drain(uuid, 0));
+            } catch (RejectedExecutionException e) {
+                // Shut down: write on the caller instead of dropping the save
+                drain(uuid, 0);
+            }
+        }
+    }
+
+    /**
+     * Check if a player has a save that was not written yet.
+     */
+    public boolean isPending(UUID uuid) {
+        return pending.containsKey(uuid);
+    }
+
+    /**
+     * A save waiting to be written.
+     *
+     * @param snapshot The data to write, or null if the save is a delete
+     */
+    public record Pending(@Nullable JsonObject snapshot) {
+    }
+
+    /**
+     * Get the save waiting to be written for a player, in a single read of the queue.
+     *
+     * @return The pending save, or null if nothing is pending
+     */
+    @Nullable
+    public Pending getPending(UUID uuid) {
+        JsonObject snapshot = pending.get(uuid);
+        if (snapshot == null) {
+            return null;
+        }
+        return new Pending(snapshot != DELETE ? snapshot : null);
+    }
+
+    /**
+     * Get the number of saves waiting to be written.
+     */
+    public int getPendingCount() {
+        return pending.size();
+    }
+
+    /**
+     * Release a player's claim on the store once the saves queued before this call are written.
+     *
+     * @param uuid The player's UUID
+     * @param stillGone Checked right before releasing; the claim is kept if it returns false
+     */
+    public void release(UUID uuid, BooleanSupplier stillGone) {
+        try {
+            executor.execute(() -> {
+                if (!stillGone.getAsBoolean()) {
+                    return;
+                }
+                try {
+                    store.release(uuid);
+                } catch (Exception e) {
+                    LOGGER.atWarning().log("Failed to release player %s: %s", uuid, e.getMessage());
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            // Shut down: closing the store releases every claim
+        }
+    }
+
+    /**
+     * Get the store saves are currently written to.
+     */
+    public PlayerDataStore getStore() {
+        return store;
+    }
+
+    /**
+     * Read a player's stored save. Safe to call from any thread.
+     *
+     * @return The stored bytes, or null if the player has no save
+     */
+    @Nullable
+    public byte[] read(UUID uuid) throws IOException {
+        while (true) {
+            PlayerDataStore current = store;
+            try {
+                byte[] data = current.read(uuid);
+                if (current == store) {
+                    return data;
+                }
+            } catch (IOException e) {
+                if (current == store) {
+                    throw e;
+                }
+            }
+            // A migration replaced the store mid-read; read again from the new one
+        }
+    }
+
+    /**
+     * Rewrite legacy JSON saves in the binary format, on the writer thread.
+     * Players with a pending save are skipped, since that save replaces theirs anyway.
+     *
+     * @return The number of converted saves
+     */
+    public CompletableFuture<Integer> convertLegacy() {
+        return CompletableFuture.supplyAsync(() -> {
+            int converted = 0;
+            try {
+                for (UUID uuid : store.getPlayers()) {
+                    if (pending.containsKey(uuid)) {
+                        continue;
+                    }
+                    try {
+                        byte[] data = store.read(uuid);
+                        if (data != null && !PlayerSaveFormat.isBinary(data)) {
+                            store.writeUnclaimed(uuid, PlayerSaveFormat.encode(PlayerSaveFormat.decode(data), compress));
+                            converted++;
+                        }
+                    } catch (Exception e) {
+                        LOGGER.atWarning().log("Failed to convert save for player %s: %s", uuid, e.getMessage());
+                    }
+                }
+                store.flush();
+            } catch (IOException e) {
+                throw new CompletionException(e);
+            }
+            return converted;
+        }, executor);
+    }
+
+    /**
+     * Copy every save to another store on the writer thread, then switch to it
+     * and clear the old one. Saves queued meanwhile go to the new store. A shared
+     * store is left as it is, since other servers may still be using it.
+     *
+     * @param target The store to move to; closed if the migration fails
+     * @param claim Players to claim in the new store before switching, since they are online and will be saved again
+     * @param commit Records the new store as the one to use, once every save was copied
+     * @return The number of migrated saves
+     */
+    public CompletableFuture<Integer> migrate(PlayerDataStore target, Set<UUID> claim, Commit commit) {
+        return CompletableFuture.supplyAsync(() -> {
+            PlayerDataStore source = store;
+            int migrated = 0;
+            try {
+                for (UUID uuid : source.getPlayers()) {
+                    byte[] data = source.read(uuid);
+                    if (data != null) {
+                        target.writeUnclaimed(uuid, data);
+                        migrated++;
+                    }
+                }
+                target.flush();
+                for (UUID uuid : claim) {
+                    target.acquire(uuid);
+                }
+                commit.run();
+                store = target;
+            } catch (Exception e) {
+                // Drop what was copied, unless other servers use the target too
+                try {
+                    if (!target.isShared()) {
+                        target.clear();
+                    }
+                    target.close();
+                } catch (IOException closeError) {
+                    e.addSuppressed(closeError);
+                }
+                throw new CompletionException(e);
+            }
+
+            try {
+                // Other servers still read and write a shared store; only give up this server's leases
+                if (!source.isShared()) {
+                    source.clear();
+                }
+                source.close();
+            } catch (IOException e) {
+                LOGGER.atWarning().log("Failed to clear old player data store: %s", e.getMessage());
+            }
+            return migrated;
+        }, executor);
+    }
+
+    /**
+     * Final step of a migration, run before the writer switches stores.
+     */
+    @FunctionalInterface
+    public interface Commit {
+        void run() throws IOException;
+    }
+
+    /**
+     * Stop accepting background work and wait for queued saves to be written.
+     *
+     * @param timeout How long to wait at most
+     * @return True if every queued save was written in time
+     */
+    public boolean close(Duration timeout) {
+        executor.shutdown();
+        try {
+            if (!executor.awaitTermination(timeout.toMillis(), TimeUnit.MILLISECONDS)) {
+                LOGGER.atWarning().log("Timed out flushing player saves, %d not written", pending.size());
+                executor.shutdownNow();
+                return false;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            LOGGER.atWarning().log("Interrupted while flushing player saves, %d not written", pending.size());
+            return false;
+        }
+        try {
+            store.close();
+        } catch (IOException e) {
+            LOGGER.atWarning().log("Failed to close player data store: %s", e.getMessage());
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Write a player's pending save.
+     *
+     * @param attempt How many times writing this player's save failed before
+     */
+    private void drain(UUID uuid, int attempt) {
+        JsonObject snapshot = pending.remove(uuid);
+        if (snapshot == null) {
+            return;
+        }
+        try {
+            if (snapshot == DELETE) {
+                store.delete(uuid);
+            } else {
+                store.write(uuid, PlayerSaveFormat.encode(snapshot, compress));
+            }
+        } catch (StaleSaveException e) {
+            // Another server owns the player now; writing again would not help
+            LOGGER.atWarning().log("Dropped stale save for player %s: %s", uuid, e.getMessage());
+        } catch (Exception e) {
+            retry(uuid, snapshot, attempt, e);
+        }
+
+        // Commit once the burst is written rather than after every save
+        if (pending.isEmpty()) {
+            try {
+                store.flush();
+            } catch (Exception e) {
+                LOGGER.atWarning().log("Failed to flush player saves: %s", e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Queue a save that failed to write again, unless a newer one took its place.
+     */
+    private void retry(UUID uuid, JsonObject snapshot, int attempt, Exception error) {
+        if (attempt >= MAX_RETRIES) {
+            LOGGER.atSevere().log("Gave up writing save for player %s after %d attempts: %s",
+                uuid, attempt + 1, error.getMessage());
+            return;
+        }
+        if (pending.putIfAbsent(uuid, snapshot) != null) {
+            // A newer save was submitted meanwhile and is already scheduled
+            LOGGER.atWarning().log("Failed to write save for player %s: %s", uuid, error.getMessage());
+            return;
+        }
+        long delay = RETRY_DELAY_MILLIS << attempt;
+        LOGGER.atWarning().log("Failed to write save for player %s, retrying in %d ms: %s", uuid, delay, error.getMessage());
+        try {
+            executor.schedule(() -> drain(uuid, attempt + 1), delay, TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException e) {
+            pending.remove(uuid, snapshot);
+            LOGGER.atSevere().log("Dropped save for player %s, the writer is shut down", uuid);
+        }
+    }
+}
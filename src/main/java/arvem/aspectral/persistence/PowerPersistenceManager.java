@@ -2,15 +2,15 @@ package arvem.aspectral.persistence;
 
 import arvem.aspectral.AspectPowers;
 import arvem.aspectral.api.HytalePlayerAdapter;
+import arvem.aspectral.api.LivingEntity;
+import arvem.aspectral.component.PlayerAspectComponent;
 import arvem.aspectral.component.PowerHolderComponent;
-import com.google.gson.Gson;
-import com.google.gson.GsonBuilder;
 import com.google.gson.JsonObject;
-import com.google.gson.JsonParser;
 import com.hypixel.hytale.component.Ref;
 import com.hypixel.hytale.component.Store;
 import com.hypixel.hytale.logger.HytaleLogger;
 import com.hypixel.hytale.server.core.entity.entities.Player;
+import com.hypixel.hytale.server.core.event.events.player.PlayerConnectEvent;
 import com.hypixel.hytale.server.core.event.events.player.PlayerDisconnectEvent;
 import com.hypixel.hytale.server.core.event.events.player.PlayerReadyEvent;
 import com.hypixel.hytale.server.core.plugin.JavaPlugin;
@@ -18,26 +18,127 @@ import com.hypixel.hytale.server.core.universe.PlayerRef;
 import com.hypixel.hytale.server.core.universe.world.storage.EntityStore;
 
 import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.util.Locale;
+import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 /**
  * Manages persistence of player powers.
  * Saves powers when players disconnect and loads them when they join.
+ * <p>
+ * Saves are write-behind: the world thread only captures a snapshot of the
+ * player's state, and {@link PlayerSaveWriter} encodes and writes it in the
+ * background, so disk I/O never stalls a world tick. Besides disconnect and
+ * shutdown, players whose state changed are autosaved by {@link PlayerAutosaver}.
+ * <p>
+ * Loads are prefetched: the file is read and parsed in the background as soon
+ * as the player connects, and only applied on the world thread once the player
+ * is ready. Recently seen players stay in a bounded cache, so a quick rejoin
+ * skips the disk entirely.
+ * <p>
+ * Saves are stored in the compact {@link PlayerSaveFormat}. Legacy JSON saves
+ * are still read, and replaced the next time the player is saved or when they
+ * are converted in bulk with {@link #convertLegacySaves()}.
+ * <p>
+ * Saves live in a {@link PlayerDataStore}: one file per player by default, or
+ * a {@link SegmentedPlayerDataStore} once {@link #migrateStore(StorageBackend)}
+ * moved them there. The backend in use is recorded in a marker file, which a
+ * migration only updates once every save was copied; installs without one pick
+ * the backend from what is on disk.
+ * <p>
+ * Servers of a network can share saves through a {@link PlayerDataStore#isShared()
+ * shared} store. The store is claimed for a player when they connect, before
+ * their save is read, and released after their last save on disconnect, so a
+ * player moving between servers is read exactly once, after the server they
+ * left finished writing. Saves of shared stores are not served from the cache.
  */
 public class PowerPersistenceManager {
 
     private static final HytaleLogger LOGGER = HytaleLogger.forEnclosingClass();
-    private static final Gson GSON = new GsonBuilder().setPrettyPrinting().create();
+
+    // Whether save files are Deflate-compressed
+    private static final boolean COMPRESS_SAVES = true;
+
+    // How long shutdown waits for queued saves to reach the disk
+    private static final Duration SHUTDOWN_FLUSH_TIMEOUT = Duration.ofSeconds(10);
+
+    // How long a shared store lease lasts unless this server keeps renewing it
+    private static final Duration LEASE_DURATION = Duration.ofSeconds(30);
+
+    // Delay between a player's state changing and their autosave, about two minutes at 30 TPS
+    private static final long AUTOSAVE_DELAY_TICKS = 3600;
+
+    // Most autosaves started in one tick
+    private static final int MAX_AUTOSAVES_PER_TICK = 4;
+
+    // Number of players whose save data stays in memory
+    private static final int PLAYER_DATA_CACHE_SIZE = 256;
 
     private final Path dataDirectory;
 
-    // Cache of player data by UUID for quick access
-    private final ConcurrentMap<UUID, JsonObject> playerDataCache = new ConcurrentHashMap<>();
+    // Cache of recently seen players' data by UUID for quick access
+    private final PlayerDataCache playerDataCache = new PlayerDataCache(PLAYER_DATA_CACHE_SIZE);
+
+    // Background writer for save snapshots
+    private final PlayerSaveWriter writer;
+
+    // Saves players some time after their state changed
+    private final PlayerAutosaver autosaver = new PlayerAutosaver(AUTOSAVE_DELAY_TICKS, MAX_AUTOSAVES_PER_TICK, this::autosave);
+
+    // Players connected to this server, so a queued release skips players who came back
+    private final Set<UUID> online = ConcurrentHashMap.newKeySet();
+
+    // Players whose save could not be read; saving them would overwrite it with nothing
+    private final Set<UUID> unreadable = ConcurrentHashMap.newKeySet();
+
+    // Players whose save was not applied yet; until then they hold none or only part of their state
+    private final Set<UUID> loading = ConcurrentHashMap.newKeySet();
+
+    // Set while saves are moved to another backend
+    private final AtomicBoolean migrating = new AtomicBoolean();
+
+    // Reads started at connect time that were not applied yet
+    private final ConcurrentMap<UUID, CompletableFuture<JsonObject>> prefetches = new ConcurrentHashMap<>();
+
+    // Runs file reads and parsing; a login wave can read many files at once
+    private final ExecutorService reader = Executors.newThreadPerTaskExecutor(
+        Thread.ofVirtual().name("aspectral-save-reader-", 0).factory());
+
+    /**
+     * Ways to store player saves.
+     */
+    public enum StorageBackend {
+        // One file per player
+        FILES,
+        // Shared append-only segment files
+        SEGMENTED,
+        // Record files shared between servers, coordinated with file locks and leases
+        SHARED;
+
+        /**
+         * Parse a backend name, or return null if it is unknown.
+         */
+        @Nullable
+        public static StorageBackend byName(String name) {
+            try {
+                return valueOf(name.toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                return null;
+            }
+        }
+    }
 
     public PowerPersistenceManager(JavaPlugin plugin) {
         // Create data directory in the run folder
@@ -48,6 +149,33 @@ public class PowerPersistenceManager {
         } catch (IOException e) {
             LOGGER.atSevere().log("Failed to create power data directory: %s", e.getMessage());
         }
+        this.writer = new PlayerSaveWriter(openStore(), COMPRESS_SAVES);
+    }
+
+    /**
+     * Open the store the saves currently live in.
+     */
+    private PlayerDataStore openStore() {
+        StorageBackend backend = readBackendMarker();
+        if (backend == null) {
+            backend = Files.isDirectory(getSharedDirectory()) ? StorageBackend.SHARED
+                : Files.isDirectory(getSegmentDirectory()) ? StorageBackend.SEGMENTED
+                : StorageBackend.FILES;
+        }
+        try {
+            return openStore(backend);
+        } catch (IOException e) {
+            LOGGER.atSevere().log("Failed to open %s player data, using per-player files: %s", backend, e.getMessage());
+            return new FilePlayerDataStore(dataDirectory);
+        }
+    }
+
+    private PlayerDataStore openStore(StorageBackend backend) throws IOException {
+        return switch (backend) {
+            case FILES -> new FilePlayerDataStore(dataDirectory);
+            case SEGMENTED -> new SegmentedPlayerDataStore(getSegmentDirectory());
+            case SHARED -> new LockingFilePlayerDataStore(getSharedDirectory(), getServerId(), LEASE_DURATION);
+        };
     }
 
     /**
@@ -56,6 +184,9 @@ public class PowerPersistenceManager {
     public void registerEvents(JavaPlugin plugin) {
         var eventRegistry = plugin.getEventRegistry();
 
+        // Start reading saved powers as soon as the player connects
+        eventRegistry.register(PlayerConnectEvent.class, this::onPlayerConnect);
+
         // Load powers when player is ready
         eventRegistry.registerGlobal(PlayerReadyEvent.class, this::onPlayerReady);
 
@@ -65,6 +196,19 @@ public class PowerPersistenceManager {
         LOGGER.atInfo().log("Registered power persistence events");
     }
 
+    /**
+     * Called when a player connects, well before they are ready.
+     */
+    private void onPlayerConnect(@Nonnull PlayerConnectEvent event) {
+        UUID uuid = event.getPlayerRef().getUuid();
+        if (uuid != null) {
+            online.add(uuid);
+            unreadable.remove(uuid);
+            loading.add(uuid);
+            prefetch(uuid);
+        }
+    }
+
     /**
      * Called when a player is ready (joined and loaded).
      */
@@ -79,7 +223,7 @@ public class PowerPersistenceManager {
             return;
         }
 
-        // Load powers asynchronously
+        // Apply the prefetched data, or wait for it off the world thread
         loadPlayerAbilities(uuid, player, ref);
     }
 
@@ -95,6 +239,10 @@ public class PowerPersistenceManager {
             return;
         }
 
+        // A player leaving before they were ready never applies their prefetch
+        prefetches.remove(uuid);
+        online.remove(uuid);
+
         // Get reference and execute on world thread
         Ref<EntityStore> ref = playerRef.getReference();
         if (ref != null && ref.isValid()) {
@@ -110,12 +258,30 @@ public class PowerPersistenceManager {
                     // Clean up component from memory
                     cleanupPlayerInternal(uuid, playerRef, ref, store);
                 }
+                // Queued behind the last save, so the next server reads what this one wrote
+                releasePlayer(uuid);
+                AspectPowers.getInstance().getAdapterCache().evict(playerRef);
+                AspectPowers.getInstance().getAdapterCache().evictInvalid();
             });
+        } else {
+            releasePlayer(uuid);
+            AspectPowers.getInstance().getAdapterCache().evict(playerRef);
         }
     }
 
+    /**
+     * Release a player's claim on the store once their queued saves are written,
+     * unless they reconnected in the meantime.
+     */
+    private void releasePlayer(UUID uuid) {
+        unreadable.remove(uuid);
+        loading.remove(uuid);
+        writer.release(uuid, () -> !online.contains(uuid));
+    }
+
     /**
      * Internal method to save powers - must be called on world thread.
+     * Only captures the snapshot; the file is written in the background.
      */
     private void savePlayerAbilitiesInternal(UUID uuid, PlayerRef playerRef, Ref<EntityStore> ref, Store<EntityStore> store) {
         try {
@@ -126,49 +292,136 @@ public class PowerPersistenceManager {
                 return;
             }
 
-            HytalePlayerAdapter adapter = new HytalePlayerAdapter(player, playerRef, ref, store);
-            PowerHolderComponent powerComponent = PowerHolderComponent.get(adapter);
+            HytalePlayerAdapter adapter = AspectPowers.getInstance().getAdapterCache().get(player, playerRef, ref, store);
+            savePlayer(uuid, adapter);
+        } catch (Exception e) {
+            LOGGER.atWarning().log("Failed to save powers for player %s: %s", uuid, e.getMessage());
+        }
+    }
 
-            // Also get the aspect component
-            var aspectComponent = AspectPowers.getInstance().getPlayerAspectManager().get(adapter);
+    /**
+     * Queue a player for autosave after their saved state changed.
+     * Called by the components when they first become dirty; other entities are ignored.
+     */
+    public void scheduleAutosave(LivingEntity entity) {
+        if (entity instanceof HytalePlayerAdapter adapter) {
+            autosaver.schedule(adapter, AspectPowers.getCurrentTick());
+        }
+    }
 
-            // If no powers and no aspect, delete the file
-            if ((powerComponent == null || powerComponent.getAbilities().isEmpty()) &&
-                (aspectComponent == null || !aspectComponent.hasAspect())) {
-                Path playerFile = getPlayerFile(uuid);
-                Files.deleteIfExists(playerFile);
-                playerDataCache.remove(uuid);
-                LOGGER.atFine().log("No powers or aspect to save for player %s", uuid);
+    /**
+     * Start the autosaves that are due. Called every server tick.
+     */
+    public void tick(long currentTick) {
+        autosaver.tick(currentTick);
+    }
+
+    /**
+     * Autosave a player on their world thread, if they are still online and have unsaved changes.
+     * A player who cannot be saved right now, such as while changing worlds, is queued again.
+     */
+    private void autosave(HytalePlayerAdapter adapter) {
+        UUID uuid = adapter.getUuid();
+        if (!online.contains(uuid)) {
+            // Their disconnect save writes whatever changed
+            return;
+        }
+        try {
+            var world = adapter.getWorld();
+            if (world == null) {
+                scheduleAutosave(adapter);
                 return;
             }
+            world.execute(() -> {
+                PowerHolderComponent powerComponent = PowerHolderComponent.get(adapter);
+                var aspectComponent = AspectPowers.getInstance().getPlayerAspectManager().get(adapter);
+                boolean dirty = (powerComponent != null && powerComponent.isDirty())
+                    || (aspectComponent != null && aspectComponent.isDirty());
+                if (!dirty) {
+                    return;
+                }
+                if (!adapter.getEntityRef().isValid()) {
+                    // Components are keyed by UUID, so the holder knows the player's current entity
+                    if (online.contains(uuid)) {
+                        scheduleAutosave(powerComponent != null ? powerComponent.getEntity() : adapter);
+                    }
+                    return;
+                }
+                savePlayer(uuid, adapter);
+            });
+        } catch (Exception e) {
+            LOGGER.atWarning().log("Failed to autosave powers for player %s: %s", uuid, e.getMessage());
+            scheduleAutosave(adapter);
+        }
+    }
 
-            // Create save data object
-            JsonObject data = new JsonObject();
+    /**
+     * Capture a player's state and queue it for writing.
+     * Must be called on the player's world thread, or once the world stopped ticking.
+     */
+    private void savePlayer(UUID uuid, HytalePlayerAdapter adapter) {
+        PowerHolderComponent powerComponent = PowerHolderComponent.get(adapter);
+        var aspectComponent = AspectPowers.getInstance().getPlayerAspectManager().get(adapter);
 
-            // Save powers
-            if (powerComponent != null) {
-                data.add("powers", powerComponent.toJson());
-            }
+        // Clear the flags before capturing, so a change during the capture marks them again
+        if (powerComponent != null) {
+            powerComponent.clearDirty();
+        }
+        if (aspectComponent != null) {
+            aspectComponent.clearDirty();
+        }
+        if (unreadable.contains(uuid)) {
+            LOGGER.atFine().log("Not saving player %s, their save could not be read", uuid);
+            return;
+        }
+        if (loading.contains(uuid)) {
+            LOGGER.atFine().log("Not saving player %s, their save was not applied yet", uuid);
+            return;
+        }
 
-            // Save aspect ID
-            if (aspectComponent != null && aspectComponent.hasAspect()) {
-                data.add("aspect", aspectComponent.toJson());
-            }
+        JsonObject data = createSnapshot(powerComponent, aspectComponent);
+        writer.submit(uuid, data);
+
+        if (data == null) {
+            // If no powers and no aspect, delete the file
+            playerDataCache.remove(uuid);
+            LOGGER.atFine().log("No powers or aspect to save for player %s", uuid);
+            return;
+        }
 
-            Path playerFile = getPlayerFile(uuid);
-            Files.writeString(playerFile, GSON.toJson(data));
+        // Update cache
+        playerDataCache.put(uuid, data);
 
-            // Update cache
-            playerDataCache.put(uuid, data);
+        int powerCount = powerComponent != null ? powerComponent.getAbilities().size() : 0;
+        String aspectId = aspectComponent != null ? aspectComponent.getAspectId() : "none";
+        LOGGER.atInfo().log("Queued save of %d powers and aspect %s for player %s",
+            powerCount, aspectId, uuid);
+    }
 
-            int powerCount = powerComponent != null ? powerComponent.getAbilities().size() : 0;
-            String aspectId = aspectComponent != null ? aspectComponent.getAspectId() : "none";
-            LOGGER.atInfo().log("Saved %d powers and aspect %s for player %s",
-                powerCount, aspectId, uuid);
+    /**
+     * Build the save data for a player, or null if there is nothing to save.
+     * The result is a fresh tree that nothing else references.
+     */
+    private static JsonObject createSnapshot(PowerHolderComponent powerComponent, PlayerAspectComponent aspectComponent) {
+        boolean hasPowers = powerComponent != null && !powerComponent.getAbilities().isEmpty();
+        boolean hasAspect = aspectComponent != null && aspectComponent.hasAspect();
+        if (!hasPowers && !hasAspect) {
+            return null;
+        }
 
-        } catch (Exception e) {
-            LOGGER.atWarning().log("Failed to save powers for player %s: %s", uuid, e.getMessage());
+        // Create save data object
+        JsonObject data = new JsonObject();
+
+        // Save powers
+        if (powerComponent != null) {
+            data.add("powers", powerComponent.toJson());
         }
+
+        // Save aspect ID
+        if (hasAspect) {
+            data.add("aspect", aspectComponent.toJson());
+        }
+        return data;
     }
 
     /**
@@ -178,7 +431,7 @@ public class PowerPersistenceManager {
         try {
             Player player = store.getComponent(ref, Player.getComponentType());
             if (player != null) {
-                HytalePlayerAdapter adapter = new HytalePlayerAdapter(player, playerRef, ref, store);
+                HytalePlayerAdapter adapter = AspectPowers.getInstance().getAdapterCache().get(player, playerRef, ref, store);
                 AspectPowers.getInstance().getComponentManager().remove(adapter);
                 AspectPowers.getInstance().getPlayerAspectManager().remove(adapter);
             }
@@ -188,30 +441,119 @@ public class PowerPersistenceManager {
     }
 
     /**
-     * Load powers for a player from disk.
+     * Start reading a player's save data in the background, unless it is already in memory.
+     * A shared store is always claimed and read, since another server may have changed the save.
+     */
+    private void prefetch(UUID uuid) {
+        if (!writer.getStore().isShared() && (writer.isPending(uuid) || playerDataCache.get(uuid) != null)) {
+            return;
+        }
+        prefetches.computeIfAbsent(uuid, id -> CompletableFuture.supplyAsync(() -> readPlayerData(id), reader));
+    }
+
+    /**
+     * Read and parse a player's save. Runs on the reader executor.
+     *
+     * @return The data, or null if the player has no save or it could not be read,
+     * in which case the player is not saved until they reconnect
+     */
+    @Nullable
+    private JsonObject readPlayerData(UUID uuid) {
+        try {
+            // Waits until the server the player comes from has released them
+            PlayerDataStore store = writer.getStore();
+            store.acquire(uuid);
+            if (!online.contains(uuid)) {
+                // Left while we waited for the claim; hand it back
+                releasePlayer(uuid);
+                return null;
+            }
+
+            byte[] bytes = writer.read(uuid);
+            if (bytes == null) {
+                return null;
+            }
+            JsonObject data = PlayerSaveFormat.decode(bytes);
+
+            // A cached save of a shared store may be older than what another server wrote
+            if (store.isShared()) {
+                playerDataCache.put(uuid, data);
+                return data;
+            }
+
+            // A save captured while reading is newer than the file
+            return playerDataCache.putIfAbsent(uuid, data);
+        } catch (Exception e) {
+            unreadable.add(uuid);
+            LOGGER.atSevere().log("Failed to read powers for player %s, not saving them until they reconnect: %s",
+                uuid, e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Get a player's save data, reading it in the background if it is not in memory yet.
+     */
+    private CompletableFuture<JsonObject> fetchPlayerData(UUID uuid) {
+        CompletableFuture<JsonObject> prefetched = prefetches.remove(uuid);
+
+        // A save still waiting for the writer is newer than anything else; read the queue
+        // once, since the writer may drain it at any moment
+        PlayerSaveWriter.Pending pending = writer.getPending(uuid);
+        if (pending != null) {
+            return CompletableFuture.completedFuture(pending.snapshot());
+        }
+
+        JsonObject cached = writer.getStore().isShared() ? null : playerDataCache.get(uuid);
+        if (cached != null) {
+            return CompletableFuture.completedFuture(cached);
+        }
+
+        if (prefetched != null) {
+            return prefetched;
+        }
+        return CompletableFuture.supplyAsync(() -> readPlayerData(uuid), reader);
+    }
+
+    /**
+     * Load powers for a player.
+     * Applies the data right away if it was prefetched, otherwise once the read finishes.
      */
-    @SuppressWarnings({"deprecation", "removal"})
     private void loadPlayerAbilities(UUID uuid, Player player, Ref<EntityStore> ref) {
-        Path playerFile = getPlayerFile(uuid);
+        CompletableFuture<JsonObject> data = fetchPlayerData(uuid);
 
-        if (!Files.exists(playerFile)) {
-            LOGGER.atFine().log("No saved powers for player %s", uuid);
+        if (data.isDone()) {
+            applyPlayerData(uuid, player, ref, data.getNow(null));
             return;
         }
 
-        try {
-            String json = Files.readString(playerFile);
-            JsonObject data = JsonParser.parseString(json).getAsJsonObject();
+        // Still reading: apply on the world thread when done, if the player is still there
+        var world = ref.getStore().getExternalData().getWorld();
+        data.thenAcceptAsync(result -> {
+            if (ref.isValid()) {
+                applyPlayerData(uuid, player, ref, result);
+            }
+        }, world::execute);
+    }
 
-            // Cache the data
-            playerDataCache.put(uuid, data);
+    /**
+     * Rebuild a player's aspect and powers from their save data - must be called on world thread.
+     */
+    @SuppressWarnings({"deprecation", "removal"})
+    private void applyPlayerData(UUID uuid, Player player, Ref<EntityStore> ref, @Nullable JsonObject data) {
+        loading.remove(uuid);
+        if (data == null) {
+            LOGGER.atFine().log("No saved powers for player %s", uuid);
+            return;
+        }
 
+        try {
             // Create adapter and component using player's PlayerRef
             Store<EntityStore> store = ref.getStore();
             PlayerRef playerRef = player.getPlayerRef();
 
             if (playerRef != null) {
-                HytalePlayerAdapter adapter = new HytalePlayerAdapter(player, playerRef, ref, store);
+                HytalePlayerAdapter adapter = AspectPowers.getInstance().getAdapterCache().get(player, playerRef, ref, store);
 
                 // Load aspect first (if present in new format)
                 if (data.has("aspect")) {
@@ -245,13 +587,17 @@ public class PowerPersistenceManager {
                 LOGGER.atWarning().log("Could not get PlayerRef for player %s", uuid);
             }
         } catch (Exception e) {
-            LOGGER.atWarning().log("Failed to load powers for player %s: %s", uuid, e.getMessage());
+            // Whatever was applied is incomplete; saving it would overwrite the full save
+            unreadable.add(uuid);
+            LOGGER.atWarning().log("Failed to load powers for player %s, not saving them until they reconnect: %s",
+                uuid, e.getMessage());
         }
     }
 
 
     /**
      * Save all online players' powers (for server shutdown).
+     * Snapshots are captured here and written by the background writer.
      */
     public void saveAllPlayers() {
         LOGGER.atInfo().log("Saving all player powers...");
@@ -261,31 +607,7 @@ public class PowerPersistenceManager {
                 UUID uuid = adapter.getUuid();
                 if (uuid != null) {
                     try {
-                        // Get aspect component
-                        var aspectComponent = AspectPowers.getInstance().getPlayerAspectManager().get(adapter);
-
-                        // Create save data
-                        JsonObject data = new JsonObject();
-                        boolean hasData = false;
-
-                        // Add powers
-                        if (!powerComponent.getAbilities().isEmpty()) {
-                            data.add("powers", powerComponent.toJson());
-                            hasData = true;
-                        }
-
-                        // Add aspect
-                        if (aspectComponent != null && aspectComponent.hasAspect()) {
-                            data.add("aspect", aspectComponent.toJson());
-                            hasData = true;
-                        }
-
-                        // Save if we have any data
-                        if (hasData) {
-                            Path playerFile = getPlayerFile(uuid);
-                            Files.writeString(playerFile, GSON.toJson(data));
-                            LOGGER.atFine().log("Saved powers and aspect for %s", uuid);
-                        }
+                        savePlayer(uuid, adapter);
                     } catch (Exception e) {
                         LOGGER.atWarning().log("Failed to save powers for %s: %s", uuid, e.getMessage());
                     }
@@ -293,14 +615,130 @@ public class PowerPersistenceManager {
             }
         }
 
-        LOGGER.atInfo().log("Finished saving player powers");
+        LOGGER.atInfo().log("Queued %d player save(s)", writer.getPendingCount());
+    }
+
+    /**
+     * Save every online player and wait, up to a bounded time, for all queued saves to be written.
+     */
+    public void shutdown() {
+        reader.shutdownNow();
+        prefetches.clear();
+        saveAllPlayers();
+        if (writer.close(SHUTDOWN_FLUSH_TIMEOUT)) {
+            LOGGER.atInfo().log("Finished saving player powers");
+        }
+    }
+
+    /**
+     * Convert every legacy JSON save to the binary format in the background.
+     *
+     * @return The number of converted saves
+     */
+    public CompletableFuture<Integer> convertLegacySaves() {
+        return writer.convertLegacy();
+    }
+
+    /**
+     * Move every save to another storage backend in the background.
+     * The new backend is used right away and after restarts.
+     *
+     * @return The number of migrated saves
+     */
+    public CompletableFuture<Integer> migrateStore(StorageBackend backend) {
+        if (backend == getStorageBackend()) {
+            return CompletableFuture.failedFuture(new IllegalStateException("Player saves already use " + backend));
+        }
+        if (!migrating.compareAndSet(false, true)) {
+            return CompletableFuture.failedFuture(new IllegalStateException("A migration is already running"));
+        }
+        try {
+            // Pin the current backend first: the new store creates its directory right away,
+            // and a restart mid-migration must not pick the half-copied store
+            writeBackendMarker(getStorageBackend());
+            return writer.migrate(openStore(backend), online, () -> writeBackendMarker(backend))
+                .whenComplete((migrated, error) -> migrating.set(false));
+        } catch (IOException e) {
+            migrating.set(false);
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    /**
+     * Get the backend player saves are currently stored in.
+     */
+    public StorageBackend getStorageBackend() {
+        PlayerDataStore store = writer.getStore();
+        return store instanceof LockingFilePlayerDataStore ? StorageBackend.SHARED
+            : store instanceof SegmentedPlayerDataStore ? StorageBackend.SEGMENTED
+            : StorageBackend.FILES;
+    }
+
+    /**
+     * Read which backend the saves live in, or null if it was never recorded.
+     */
+    @Nullable
+    private StorageBackend readBackendMarker() {
+        Path file = getBackendMarker();
+        if (!Files.exists(file)) {
+            return null;
+        }
+        try {
+            StorageBackend backend = StorageBackend.byName(Files.readString(file).trim());
+            if (backend == null) {
+                LOGGER.atWarning().log("Unknown storage backend in %s, picking one from what is on disk", file);
+            }
+            return backend;
+        } catch (IOException e) {
+            LOGGER.atWarning().log("Failed to read %s, picking a storage backend from what is on disk: %s", file, e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Record which backend the saves live in. Replaced in one step, so a crash leaves the old or the new backend.
+     */
+    private void writeBackendMarker(StorageBackend backend) throws IOException {
+        Path file = getBackendMarker();
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        Files.writeString(temp, backend.name());
+        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private Path getBackendMarker() {
+        return dataDirectory.resolveSibling("storage-backend");
+    }
+
+    /**
+     * Get the directory of the segmented store.
+     */
+    private Path getSegmentDirectory() {
+        return dataDirectory.resolve(SegmentedPlayerDataStore.DIRECTORY);
     }
 
     /**
-     * Get the file path for a player's power data.
+     * Get the directory of the shared store. Link it to the same directory on every server of a network.
      */
-    private Path getPlayerFile(UUID uuid) {
-        return dataDirectory.resolve(uuid.toString() + ".json");
+    private Path getSharedDirectory() {
+        return dataDirectory.resolve(LockingFilePlayerDataStore.DIRECTORY);
+    }
+
+    /**
+     * Get this server's ID for shared store leases, creating it on first use.
+     * It is kept across restarts so a restarted server gets its own leases back.
+     */
+    private UUID getServerId() throws IOException {
+        Path file = dataDirectory.resolveSibling("server-id");
+        if (Files.exists(file)) {
+            try {
+                return UUID.fromString(Files.readString(file).trim());
+            } catch (IllegalArgumentException e) {
+                LOGGER.atWarning().log("Invalid server ID in %s, creating a new one", file);
+            }
+        }
+        UUID serverId = UUID.randomUUID();
+        Files.writeString(file, serverId.toString());
+        return serverId;
     }
 
     /**
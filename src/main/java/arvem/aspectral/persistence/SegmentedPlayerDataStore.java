@@ -0,0 +1,367 @@
+package arvem.aspectral.persistence;
+
+import com.hypixel.hytale.logger.HytaleLogger;
+
+import javax.annotation.Nullable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/**
+ * Stores all player saves in a few append-only segment files.
+ * <p>
+ * Every write appends a record to the active segment, and an in-memory index
+ * maps each UUID to its newest record. The index is rebuilt by scanning the
+ * segments on open, and a torn record at the end of the active segment is cut
+ * off. Sealed segments were synced before the next one started, so a bad record
+ * there is corruption: the scan stops, the file is left as it is, and
+ * compaction is suspended so nothing after the damage is deleted.
+ * Writes are only synced on {@link #flush()}, so a burst of saves shares one
+ * sync. Once most of the stored bytes are overwritten records, the live records
+ * of every older segment are copied forward and those segments are deleted.
+ * <p>
+ * Meant for servers with so many historical players that one file per player
+ * strains the file system and backups.
+ */
+public class SegmentedPlayerDataStore implements PlayerDataStore {
+
+    private static final HytaleLogger LOGGER = HytaleLogger.forEnclosingClass();
+
+    public static final String DIRECTORY = "segments";
+
+    private static final String SEGMENT_PREFIX = "segment-";
+    private static final String SEGMENT_EXTENSION = ".log";
+
+    // UUID (16), length (4), CRC32 of the data (4)
+    private static final int HEADER_SIZE = 24;
+    private static final int TOMBSTONE = -1;
+
+    // A segment stops taking writes once it grows past this size
+    private static final long SEGMENT_SIZE = 64L * 1024 * 1024;
+
+    // Compaction only runs once at least this much space would be reclaimed
+    private static final long COMPACTION_MIN_DEAD_BYTES = 16L * 1024 * 1024;
+
+    private record Location(int segment, long offset, int length) {
+        long size() {
+            return HEADER_SIZE + length;
+        }
+    }
+
+    private final Path directory;
+    private final TreeMap<Integer, FileChannel> segments = new TreeMap<>();
+    private final Map<UUID, Location> index = new HashMap<>();
+
+    // Segment taking appends, or -1 until the first write
+    private int activeId = -1;
+    private long activeSize;
+
+    // Bytes of all segments, and of the records the index points to
+    private long totalBytes;
+    private long liveBytes;
+
+    // Whether the active segment has writes that were not synced yet
+    private boolean unsynced;
+
+    // Sealed segments with a corrupt record; compaction would delete what follows it
+    private final Set<Integer> corrupt = new HashSet<>();
+
+    /**
+     * Open the store, rebuilding the index from the segments already on disk.
+     *
+     * @param directory Directory holding the segment files
+     */
+    public SegmentedPlayerDataStore(Path directory) throws IOException {
+        this.directory = directory;
+        Files.createDirectories(directory);
+
+        List<Integer> ids = new ArrayList<>();
+        try (Stream<Path> files = Files.list(directory)) {
+            files.forEach(file -> {
+                String name = file.getFileName().toString();
+                if (name.startsWith(SEGMENT_PREFIX) && name.endsWith(SEGMENT_EXTENSION)) {
+                    try {
+                        ids.add(Integer.parseInt(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_EXTENSION.length())));
+                    } catch (NumberFormatException ignored) {
+                        // Not one of ours
+                    }
+                }
+            });
+        }
+        ids.sort(null);
+
+        for (int i = 0; i < ids.size(); i++) {
+            int id = ids.get(i);
+            FileChannel channel = FileChannel.open(getSegmentFile(id), StandardOpenOption.READ, StandardOpenOption.WRITE);
+            segments.put(id, channel);
+            long size = scan(id, channel, i == ids.size() - 1);
+            totalBytes += size;
+            activeId = id;
+            activeSize = size;
+        }
+
+        LOGGER.atInfo().log("Opened %d player saves in %d segment(s)", index.size(), segments.size());
+    }
+
+    @Nullable
+    @Override
+    public synchronized byte[] read(UUID uuid) throws IOException {
+        Location location = index.get(uuid);
+        if (location == null) {
+            return null;
+        }
+        return readData(uuid, location);
+    }
+
+    @Override
+    public synchronized void write(UUID uuid, byte[] data) throws IOException {
+        Location location = append(uuid, data);
+        Location previous = index.put(uuid, location);
+        if (previous != null) {
+            liveBytes -= previous.size();
+        }
+        liveBytes += location.size();
+    }
+
+    @Override
+    public synchronized void delete(UUID uuid) throws IOException {
+        Location previous = index.remove(uuid);
+        if (previous != null) {
+            liveBytes -= previous.size();
+            append(uuid, null);
+        }
+    }
+
+    @Override
+    public synchronized Set<UUID> getPlayers() {
+        return new HashSet<>(index.keySet());
+    }
+
+    @Override
+    public synchronized void flush() throws IOException {
+        if (unsynced) {
+            segments.get(activeId).force(false);
+            unsynced = false;
+        }
+
+        long deadBytes = totalBytes - liveBytes;
+        if (segments.size() > 1 && corrupt.isEmpty() && deadBytes >= COMPACTION_MIN_DEAD_BYTES && deadBytes * 2 > totalBytes) {
+            compact();
+        }
+    }
+
+    @Override
+    public synchronized void clear() throws IOException {
+        for (Map.Entry<Integer, FileChannel> entry : segments.entrySet()) {
+            entry.getValue().close();
+            Files.deleteIfExists(getSegmentFile(entry.getKey()));
+        }
+        segments.clear();
+        index.clear();
+        corrupt.clear();
+        activeId = -1;
+        activeSize = 0;
+        totalBytes = 0;
+        liveBytes = 0;
+        unsynced = false;
+        Files.deleteIfExists(directory);
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        flush();
+        for (FileChannel channel : segments.values()) {
+            channel.close();
+        }
+        segments.clear();
+    }
+
+    /**
+     * Copy the live records of every segment but the active one forward, then delete those segments.
+     */
+    private void compact() throws IOException {
+        long before = totalBytes;
+        int firstKept = activeId;
+
+        for (Map.Entry<UUID, Location> entry : new ArrayList<>(index.entrySet())) {
+            Location location = entry.getValue();
+            if (location.segment() < firstKept) {
+                Location moved = append(entry.getKey(), readData(entry.getKey(), location));
+                index.put(entry.getKey(), moved);
+            }
+        }
+        segments.get(activeId).force(false);
+        unsynced = false;
+
+        // Oldest first: a delete's tombstone is never removed before the record it deletes
+        List<Integer> obsolete = new ArrayList<>(segments.headMap(firstKept).keySet());
+        for (int id : obsolete) {
+            FileChannel channel = segments.remove(id);
+            totalBytes -= channel.size();
+            channel.close();
+            Files.deleteIfExists(getSegmentFile(id));
+        }
+
+        LOGGER.atInfo().log("Compacted player saves from %d to %d bytes", before, totalBytes);
+    }
+
+    /**
+     * Append a record to the active segment, starting a new segment if it is full.
+     *
+     * @param data The save, or null for a tombstone
+     */
+    private Location append(UUID uuid, @Nullable byte[] data) throws IOException {
+        if (activeId < 0 || activeSize >= SEGMENT_SIZE) {
+            roll();
+        }
+
+        int length = data != null ? data.length : TOMBSTONE;
+        ByteBuffer record = ByteBuffer.allocate(HEADER_SIZE + Math.max(length, 0));
+        record.putLong(uuid.getMostSignificantBits());
+        record.putLong(uuid.getLeastSignificantBits());
+        record.putInt(length);
+        record.putInt(data != null ? checksum(data) : 0);
+        if (data != null) {
+            record.put(data);
+        }
+        record.flip();
+
+        long offset = activeSize;
+        writeFully(segments.get(activeId), record, offset);
+        activeSize += record.capacity();
+        totalBytes += record.capacity();
+        unsynced = true;
+        return new Location(activeId, offset, Math.max(length, 0));
+    }
+
+    /**
+     * Seal the active segment and start a new one.
+     */
+    private void roll() throws IOException {
+        if (activeId >= 0 && unsynced) {
+            segments.get(activeId).force(false);
+            unsynced = false;
+        }
+        Files.createDirectories(directory);
+
+        int id = activeId + 1;
+        FileChannel channel = FileChannel.open(getSegmentFile(id),
+            StandardOpenOption.CREATE_NEW, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        segments.put(id, channel);
+        activeId = id;
+        activeSize = 0;
+    }
+
+    private byte[] readData(UUID uuid, Location location) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(location.length());
+        readFully(segments.get(location.segment()), buffer, location.offset() + HEADER_SIZE);
+
+        byte[] data = buffer.array();
+        int expected = readChecksum(segments.get(location.segment()), location.offset());
+        if (checksum(data) != expected) {
+            throw new IOException("Corrupt save record for player " + uuid);
+        }
+        return data;
+    }
+
+    /**
+     * Add a segment's records to the index, cutting off a torn record at the end of the active segment.
+     *
+     * @param active Whether this is the newest segment, the only one that can end in a torn write
+     * @return The segment's size after the scan
+     */
+    private long scan(int id, FileChannel channel, boolean active) throws IOException {
+        long size = channel.size();
+        long offset = 0;
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+
+        while (offset + HEADER_SIZE <= size) {
+            header.clear();
+            readFully(channel, header, offset);
+            header.flip();
+            UUID uuid = new UUID(header.getLong(), header.getLong());
+            int length = header.getInt();
+            int crc = header.getInt();
+
+            if (length < TOMBSTONE || offset + HEADER_SIZE + Math.max(length, 0) > size) {
+                break;
+            }
+            if (length >= 0) {
+                ByteBuffer data = ByteBuffer.allocate(length);
+                readFully(channel, data, offset + HEADER_SIZE);
+                if (checksum(data.array()) != crc) {
+                    break;
+                }
+            }
+
+            Location location = new Location(id, offset, Math.max(length, 0));
+            Location previous = length >= 0 ? index.put(uuid, location) : index.remove(uuid);
+            if (previous != null) {
+                liveBytes -= previous.size();
+            }
+            if (length >= 0) {
+                liveBytes += location.size();
+            }
+            offset += location.size();
+        }
+
+        if (offset < size) {
+            if (!active) {
+                // Synced before the next segment started, so this is damage rather than a torn write
+                LOGGER.atSevere().log("Corrupt record at offset %d of %s; ignoring its remaining %d bytes and suspending compaction",
+                    offset, getSegmentFile(id).getFileName(), size - offset);
+                corrupt.add(id);
+                return size;
+            }
+            LOGGER.atWarning().log("Dropping %d bytes of incomplete records from %s", size - offset, getSegmentFile(id).getFileName());
+            channel.truncate(offset);
+        }
+        return offset;
+    }
+
+    private static int readChecksum(FileChannel channel, long offset) throws IOException {
+        ByteBuffer crc = ByteBuffer.allocate(4);
+        readFully(channel, crc, offset + HEADER_SIZE - 4);
+        return crc.getInt(0);
+    }
+
+    private static int checksum(byte[] data) {
+        CRC32 crc = new CRC32();
+        crc.update(data);
+        return (int) crc.getValue();
+    }
+
+    private static void readFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            int n = channel.read(buffer, position);
+            if (n < 0) {
+                throw new EOFException();
+            }
+            position += n;
+        }
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            position += channel.write(buffer, position);
+        }
+    }
+
+    private Path getSegmentFile(int id) {
+        return directory.resolve(String.format("%s%06d%s", SEGMENT_PREFIX, id, SEGMENT_EXTENSION));
+    }
+}
@@ -0,0 +1,22 @@
+package arvem.aspectral.persistence;
+
+import java.io.IOException;
+import java.util.UUID;
+
+/**
+ * Thrown when a save is rejected because another server changed or claimed the
+ * player's data since this server last read or wrote it.
+ */
+public class StaleSaveException extends IOException {
+
+    private final UUID player;
+
+    public StaleSaveException(UUID player, String message) {
+        super(message);
+        this.player = player;
+    }
+
+    public UUID getPlayer() {
+        return player;
+    }
+}
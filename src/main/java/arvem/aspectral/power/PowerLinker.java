@@ -0,0 +1,193 @@
+package arvem.aspectral.power;
+
+import arvem.aspectral.AspectPowers;
+import arvem.aspectral.aspect.Aspect;
+import arvem.aspectral.aspect.AspectRegistry;
+import arvem.aspectral.data.SerializableData;
+import arvem.aspectral.layer.Layer;
+import arvem.aspectral.layer.LayerRegistry;
+import arvem.aspectral.powers.PowerDefinition;
+import arvem.aspectral.powers.PowerType;
+import arvem.aspectral.powers.PowerTypeReference;
+import arvem.aspectral.registry.PowerTypeRegistry;
+import com.hypixel.hytale.logger.HytaleLogger;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Link phase run once all powers, aspects and layers are loaded.
+ * <p>
+ * Binds every power reference read from power files to the power type it names,
+ * so conditions and actions such as {@code has_power} or {@code change_resource}
+ * never look anything up while they run. Along the way it reports references to
+ * powers, aspects and layers that do not exist, and multiple powers that
+ * contain themselves through their sub-powers. Such a cycle would recurse
+ * forever when granted, so the reference closing it is bound to nothing.
+ */
+public class PowerLinker {
+
+    private static final HytaleLogger LOGGER = HytaleLogger.forEnclosingClass();
+
+    private final PowerRegistry powerRegistry;
+    private final PowerTypeRegistry powerTypeRegistry;
+    private final AspectRegistry aspectRegistry;
+    private final LayerRegistry layerRegistry;
+
+    public PowerLinker(PowerRegistry powerRegistry, PowerTypeRegistry powerTypeRegistry,
+                       AspectRegistry aspectRegistry, LayerRegistry layerRegistry) {
+        this.powerRegistry = powerRegistry;
+        this.powerTypeRegistry = powerTypeRegistry;
+        this.aspectRegistry = aspectRegistry;
+        this.layerRegistry = layerRegistry;
+    }
+
+    /**
+     * Bind all power references and report broken content.
+     *
+     * @return The number of problems found
+     */
+    public int link() {
+        int problems = 0;
+        int bound = 0;
+
+        // Powers -> powers
+        for (String powerId : powerRegistry.getAllPowerIds()) {
+            PowerDefinition definition = powerRegistry.getPower(powerId);
+            if (definition == null) {
+                continue;
+            }
+            for (PowerTypeReference reference : definition.getReferences()) {
+                PowerType<?> target = resolve(reference.getIdentifier());
+                reference.bind(target);
+                if (target == null) {
+                    LOGGER.atWarning().log("Power %s refers to unknown power %s", powerId, reference.getIdentifier());
+                    problems++;
+                } else {
+                    bound++;
+                }
+            }
+        }
+        problems += breakCycles();
+
+        // Aspects -> powers
+        for (Aspect aspect : aspectRegistry.getAll()) {
+            for (String powerId : aspect.getPowerIds()) {
+                if (!powerRegistry.hasPower(powerId)) {
+                    LOGGER.atWarning().log("Aspect %s refers to unknown power %s", aspect.getIdentifier(), powerId);
+                    problems++;
+                }
+            }
+        }
+
+        // Layers -> aspects
+        for (Layer layer : layerRegistry.getAllLayers()) {
+            for (String aspectId : layer.getAspects()) {
+                if (!aspectRegistry.has(aspectId)) {
+                    LOGGER.atWarning().log("Layer %s refers to unknown aspect %s", layer.getId(), aspectId);
+                    problems++;
+                }
+            }
+            for (String aspectId : layer.getExcludeRandom()) {
+                if (!aspectRegistry.has(aspectId)) {
+                    LOGGER.atWarning().log("Layer %s excludes unknown aspect %s", layer.getId(), aspectId);
+                    problems++;
+                }
+            }
+        }
+
+        if (problems > 0) {
+            LOGGER.atWarning().log("Linked %d power reference(s), found %d problem(s) in the data files", bound, problems);
+        } else {
+            LOGGER.atInfo().log("Linked %d power reference(s)", bound);
+        }
+        return problems;
+    }
+
+    /**
+     * Resolve a power ID to the type of the loaded power, or of a power type registered in code.
+     */
+    private PowerType<?> resolve(String powerId) {
+        PowerDefinition definition = powerRegistry.getPower(powerId);
+        if (definition != null) {
+            return definition.powerType;
+        }
+        return powerTypeRegistry.getPowerType(powerId);
+    }
+
+    /**
+     * Find multiple powers that contain themselves and unbind the sub-power reference closing each cycle.
+     *
+     * @return The number of cycles found
+     */
+    private int breakCycles() {
+        // Which powers each multiple power contains, by power ID; keyed by identity, since a replaced
+        // definition's type compares equal to its replacement
+        Map<PowerType<?>, String> powerIds = new IdentityHashMap<>();
+        Map<String, List<PowerTypeReference>> contains = new HashMap<>();
+        for (String powerId : powerRegistry.getAllPowerIds()) {
+            PowerDefinition definition = powerRegistry.getPower(powerId);
+            if (definition == null) {
+                continue;
+            }
+            powerIds.put(definition.powerType, powerId);
+            List<PowerTypeReference> subPowers = getSubPowers(definition);
+            if (!subPowers.isEmpty()) {
+                contains.put(powerId, subPowers);
+            }
+        }
+
+        int cycles = 0;
+        Set<String> done = new HashSet<>();
+        for (String powerId : contains.keySet()) {
+            cycles += visit(powerId, contains, powerIds, new ArrayList<>(), done);
+        }
+        return cycles;
+    }
+
+    private int visit(String powerId, Map<String, List<PowerTypeReference>> contains, Map<PowerType<?>, String> powerIds,
+                      List<String> path, Set<String> done) {
+        if (done.contains(powerId)) {
+            return 0;
+        }
+        path.add(powerId);
+        int cycles = 0;
+        for (PowerTypeReference reference : contains.getOrDefault(powerId, List.of())) {
+            String target = powerIds.get(reference.getReferencedPowerType());
+            if (target == null) {
+                continue;
+            }
+            if (path.contains(target)) {
+                List<String> cycle = new ArrayList<>(path.subList(path.indexOf(target), path.size()));
+                cycle.add(target);
+                LOGGER.atSevere().log("Power %s contains itself: %s", target, String.join(" -> ", cycle));
+                reference.bind(null);
+                cycles++;
+            } else {
+                cycles += visit(target, contains, powerIds, path, done);
+            }
+        }
+        path.remove(path.size() - 1);
+        done.add(powerId);
+        return cycles;
+    }
+
+    /**
+     * Get the sub-power references of a multiple power, or nothing for any other power.
+     */
+    private static List<PowerTypeReference> getSubPowers(PowerDefinition definition) {
+        if (!AspectPowers.identifier("multiple").equals(definition.getTypeId())) {
+            return List.of();
+        }
+        SerializableData.Instance data = definition.powerType.getFactory().getDataInstance();
+        if (!data.isPresent("powers")) {
+            return List.of();
+        }
+        return data.get("powers");
+    }
+}
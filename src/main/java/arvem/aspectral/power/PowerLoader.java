@@ -3,16 +3,18 @@ package arvem.aspectral.power;
 import arvem.aspectral.AspectPowers;
 import arvem.aspectral.powers.PowerDefinition;
 import arvem.aspectral.powers.PowerType;
+import arvem.aspectral.powers.PowerTypeReference;
 import arvem.aspectral.registry.PowerTypeRegistry;
+import arvem.aspectral.util.DataFileLoader;
 import com.google.gson.JsonObject;
-import com.google.gson.JsonParser;
 import com.hypixel.hytale.logger.HytaleLogger;
 
-import java.io.File;
-import java.io.FileReader;
+import javax.annotation.Nullable;
 import java.nio.file.Files;
 import java.nio.file.Path;
-import java.util.stream.Stream;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
 
 /**
  * Loads power (power) definitions from JSON files.
@@ -51,74 +53,113 @@ public class PowerLoader {
             }
         }
 
-        int loadedCount = 0;
-        try (Stream<Path> paths = Files.walk(powersDir, 1)) {
-            for (Path path : paths.filter(p -> p.toString().endsWith(".json")).toList()) {
-                File file = path.toFile();
-                LOGGER.atInfo().log("Found JSON file: %s", file.getName());
-
-                try {
-                    loadPower(file);
-                    loadedCount++;
-                } catch (Exception e) {
-                    LOGGER.atSevere().withCause(e).log("Failed to load power from: %s", file.getName());
-                }
-            }
+        DataFileLoader.Result<ParsedPower> result;
+        try {
+            result = DataFileLoader.parseAll(powersDir, 1, AspectPowers.namespace(), this::parsePower);
         } catch (Exception e) {
             LOGGER.atSevere().withCause(e).log("Failed to walk powers directory");
+            return;
+        }
+
+        // Register on this thread, in file order, so the registry does not depend on parse timing
+        for (DataFileLoader.Loaded<ParsedPower> loaded : result.loaded()) {
+            ParsedPower power = loaded.value();
+            powerRegistry.register(power.id(), power.definition());
+            LOGGER.atInfo().log("Power registered: %s (type: %s)", power.id(), power.definition().getTypeId());
         }
+        DataFileLoader.logFailures(LOGGER, "power", result.failures());
 
         LOGGER.atInfo().log("Found %d JSON file(s), loaded %d power(s) from %s",
-                loadedCount, loadedCount, powersDir.getFileName());
+                result.files(), result.loaded().size(), powersDir.getFileName());
     }
 
     /**
-     * Load a single power from a JSON file.
+     * Reload the given power files, leaving every other power as it is.
+     * Files that no longer exist remove their power; files that fail to parse keep the power they had.
+     *
+     * @param powersDir Directory containing power JSON files
+     * @param files The files that changed
+     * @return The powers that were added, replaced or removed
      */
-    private void loadPower(File file) {
-        LOGGER.atInfo().log("Loading power from: %s", file.getName());
-
-        try (FileReader reader = new FileReader(file)) {
-            JsonObject json = JsonParser.parseReader(reader).getAsJsonObject();
+    public List<DataFileLoader.Change<PowerDefinition>> reloadFiles(Path powersDir, Collection<Path> files) {
+        List<DataFileLoader.Change<PowerDefinition>> changes = new ArrayList<>();
+        List<Path> existing = new ArrayList<>();
+        for (Path file : files) {
+            if (Files.isRegularFile(file)) {
+                existing.add(file);
+                continue;
+            }
+            String powerId = getPowerId(file);
+            PowerDefinition previous = powerRegistry.unregister(powerId);
+            if (previous != null) {
+                changes.add(new DataFileLoader.Change<>(powerId, previous, null));
+                LOGGER.atInfo().log("Power removed: %s", powerId);
+            }
+        }
 
-            // Extract power ID from filename (without .json extension)
-            String fileName = file.getName();
-            String powerId = AspectPowers.identifier(fileName.substring(0, fileName.length() - 5));
+        DataFileLoader.Result<ParsedPower> result;
+        try {
+            result = DataFileLoader.parseFiles(powersDir, existing, AspectPowers.namespace(), this::parsePower);
+        } catch (Exception e) {
+            LOGGER.atSevere().withCause(e).log("Failed to reload powers");
+            return changes;
+        }
 
-            LOGGER.atInfo().log("Parsed power ID: %s", powerId);
+        for (DataFileLoader.Loaded<ParsedPower> loaded : result.loaded()) {
+            ParsedPower power = loaded.value();
+            PowerDefinition previous = powerRegistry.getPower(power.id());
+            powerRegistry.register(power.id(), power.definition());
+            changes.add(new DataFileLoader.Change<>(power.id(), previous, power.definition()));
+            LOGGER.atInfo().log("Power reloaded: %s (type: %s)", power.id(), power.definition().getTypeId());
+        }
+        DataFileLoader.logFailures(LOGGER, "power", result.failures());
+        return changes;
+    }
 
-            // Check if the power has a type field
-            if (!json.has("type")) {
-                LOGGER.atWarning().log("Power %s has no 'type' field, skipping", powerId);
-                return;
-            }
+    /**
+     * Parse a single power from a JSON file. Runs on a loader thread, so it must not touch the registry.
+     *
+     * @return The parsed power, or null if the file is not a usable power
+     */
+    @Nullable
+    private ParsedPower parsePower(Path file, JsonObject json) throws Exception {
+        String powerId = getPowerId(file);
 
-            String typeId = json.get("type").getAsString();
-            var factoryRegistration = powerTypeRegistry.getPowerFactory(typeId);
+        LOGGER.atInfo().log("Parsed power ID: %s", powerId);
 
-            if (factoryRegistration == null) {
-                LOGGER.atWarning().log("Unknown power factory for power %s: %s", powerId, typeId);
-                return;
-            }
+        // Check if the power has a type field
+        if (!json.has("type")) {
+            LOGGER.atWarning().log("Power %s has no 'type' field, skipping", powerId);
+            return null;
+        }
 
-            // Create the power type from the factory
-            var factoryInstance = factoryRegistration.read(json);
-            PowerType<?> powerType =
-                    new PowerType<>(typeId, factoryInstance);
+        String typeId = json.get("type").getAsString();
+        var factoryRegistration = powerTypeRegistry.getPowerFactory(typeId);
 
-            // Create the power definition
-            PowerDefinition definition = new PowerDefinition(powerType, json);
+        if (factoryRegistration == null) {
+            LOGGER.atWarning().log("Unknown power factory for power %s: %s", powerId, typeId);
+            return null;
+        }
 
-            // Register the power
-            powerRegistry.register(powerId, definition);
-            LOGGER.atInfo().log("Power registered: %s (type: %s)", powerId, typeId);
+        // Create the power type from the factory, noting the powers it refers to for linking;
+        // it is named after the power, so entities holding several powers of one factory tell them apart
+        List<PowerTypeReference> references = new ArrayList<>();
+        var factoryInstance = PowerTypeReference.collect(references, () -> factoryRegistration.read(json));
+        PowerType<?> powerType =
+                new PowerType<>(powerId, factoryInstance);
 
-        } catch (Exception e) {
-            LOGGER.atSevere().withCause(e).log("Failed to parse power JSON: %s", file.getName());
-            throw new RuntimeException("Failed to load power: " + file.getName(), e);
-        }
+        // Create the power definition
+        return new ParsedPower(powerId, new PowerDefinition(powerType, json, references));
     }
-}
-
 
+    /**
+     * Get the ID of the power a file defines, from its name (without .json extension).
+     */
+    private static String getPowerId(Path file) {
+        String fileName = file.getFileName().toString();
+        return AspectPowers.identifier(fileName.substring(0, fileName.length() - 5));
+    }
 
+    private record ParsedPower(String id, PowerDefinition definition) {
+    }
+}
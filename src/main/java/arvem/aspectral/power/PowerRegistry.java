@@ -33,6 +33,15 @@ public class PowerRegistry {
         powers.put(powerId, definition);
     }
 
+    /**
+     * Remove a power definition.
+     *
+     * @return The removed definition, or null if there was none
+     */
+    public PowerDefinition unregister(String powerId) {
+        return powers.remove(powerId);
+    }
+
     /**
      * Get a power definition by ID.
      */
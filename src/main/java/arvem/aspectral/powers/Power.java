@@ -1,13 +1,19 @@
 package arvem.aspectral.powers;
 
+import arvem.aspectral.AspectPowers;
+import arvem.aspectral.component.PowerHolderComponent;
 import arvem.aspectral.powers.factory.PowerFactory;
 import arvem.aspectral.api.LivingEntity;
 import arvem.aspectral.data.SerializableData;
+import arvem.aspectral.util.Scheduler;
 import com.google.gson.JsonObject;
 
-import java.util.LinkedList;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.Set;
 import java.util.function.BiFunction;
+import java.util.function.Consumer;
 import java.util.function.Predicate;
 
 /**
@@ -25,6 +31,9 @@ import java.util.function.Predicate;
  */
 public class Power {
 
+    // The power whose action is running on this thread, so tasks the action schedules are owned by it
+    private static final ThreadLocal<Power> RUNNING = new ThreadLocal<>();
+
     protected LivingEntity entity;
     protected PowerType<?> type;
 
@@ -36,10 +45,27 @@ public class Power {
 
     protected List<Predicate<LivingEntity>> conditions;
 
+    // Tick scheduling state, managed by the PowerTicker of the owning holder
+    PowerTicker ticker;
+    boolean awake = false;
+    boolean queued = false;
+    long wakeTick = -1;
+
+    // Container power this power was attached through, whose conditions also gate its ticking
+    private Power parent;
+
+    // Opt-in cache of the condition result, valid for the tick it was computed in
+    private boolean cacheActiveState = false;
+    private long activeStateTick = -1;
+    private boolean activeState;
+
+    // Delayed tasks owned by this power, created on first use
+    private volatile Scheduler.Scope taskScope;
+
     public Power(PowerType<?> type, LivingEntity entity) {
         this.type = type;
         this.entity = entity;
-        this.conditions = new LinkedList<>();
+        this.conditions = new ArrayList<>();
     }
 
     /**
@@ -47,9 +73,67 @@ public class Power {
      */
     public Power addCondition(Predicate<LivingEntity> condition) {
         this.conditions.add(condition);
+        invalidateActiveState();
         return this;
     }
 
+    /**
+     * Get the conditions that must be met for this power to be active.
+     */
+    public List<Predicate<LivingEntity>> getConditions() {
+        return Collections.unmodifiableList(conditions);
+    }
+
+    /**
+     * Cache the result of this power's conditions for the rest of the current tick.
+     * Conditions are then evaluated at most once per tick, however often
+     * {@link #isActive()} is called. Only use this when the conditions cannot change
+     * mid-tick without one of the invalidation hooks being called.
+     */
+    public Power setCacheActiveState(boolean cacheActiveState) {
+        this.cacheActiveState = cacheActiveState;
+        invalidateActiveState();
+        return this;
+    }
+
+    /**
+     * Check if this power caches its condition result per tick.
+     */
+    public boolean isCachingActiveState() {
+        return cacheActiveState;
+    }
+
+    /**
+     * Drop the cached condition result, so the next {@link #isActive()} call re-evaluates.
+     */
+    public void invalidateActiveState() {
+        activeStateTick = -1;
+    }
+
+    /**
+     * Flag the owning holder as needing a save.
+     * Call this after changing state that {@link #writeState(JsonObject)} writes.
+     */
+    protected final void markDirty() {
+        PowerHolderComponent holder = PowerHolderComponent.get(entity);
+        if (holder != null) {
+            holder.markDirty();
+        }
+    }
+
+    /**
+     * Drop the cached condition results of every power on this power's entity.
+     * Call this after changing state that other powers' conditions may read,
+     * such as a resource value or a toggle.
+     */
+    protected final void invalidateHolderActiveStates() {
+        PowerHolderComponent holder = PowerHolderComponent.get(entity);
+        if (holder != null) {
+            holder.invalidateActiveStates();
+        }
+        invalidateActiveState();
+    }
+
     /**
      * Mark this power as requiring ticking.
      */
@@ -66,6 +150,192 @@ public class Power {
         this.shouldTickWhenInactive = evenWhenInactive;
     }
 
+    /**
+     * Ask the holder to tick this power every tick until {@link #sleep()} is called.
+     * Safe to call before the power is added to a holder, and from any thread;
+     * like every ticker change, it takes effect on the thread that ticks the holder.
+     */
+    public final void requestTick() {
+        runOnTickThread(() -> {
+            if (ticker != null) {
+                ticker.wake(this);
+            } else {
+                awake = true;
+                wakeTick = -1;
+            }
+        });
+    }
+
+    /**
+     * Stop ticking this power until it requests a tick again.
+     */
+    public final void sleep() {
+        runOnTickThread(() -> {
+            if (ticker != null) {
+                ticker.sleep(this);
+            } else {
+                awake = false;
+                wakeTick = -1;
+            }
+        });
+    }
+
+    /**
+     * Sleep until the given global tick, then resume ticking every tick.
+     * @param tick The global tick number to wake up at
+     * @see AspectPowers#getCurrentTick()
+     */
+    public final void wakeAt(long tick) {
+        runOnTickThread(() -> {
+            if (ticker != null) {
+                ticker.wakeAt(this, tick);
+            } else {
+                awake = false;
+                wakeTick = tick;
+            }
+        });
+    }
+
+    /**
+     * Sleep for the given number of ticks, then resume ticking every tick.
+     */
+    public final void wakeIn(int ticks) {
+        wakeAt(AspectPowers.getCurrentTick() + ticks);
+    }
+
+    /**
+     * Check if this power is currently being ticked.
+     */
+    public final boolean isAwake() {
+        return awake;
+    }
+
+    /**
+     * Schedule a sub-power on the same ticker as this power.
+     * Used by container powers so their children can wake and sleep on their own.
+     * The sub-power is only ticked while this power is active.
+     */
+    protected final void attachSubPower(Power subPower) {
+        subPower.parent = this;
+        // Queued behind this power's own attach when called off the tick thread
+        runOnTickThread(() -> {
+            if (ticker != null) {
+                ticker.attach(subPower);
+            }
+        });
+    }
+
+    /**
+     * Stop scheduling a sub-power previously attached with {@link #attachSubPower(Power)}.
+     */
+    protected final void detachSubPower(Power subPower) {
+        runOnTickThread(() -> {
+            if (subPower.ticker != null) {
+                subPower.ticker.detach(subPower);
+            }
+            subPower.parent = null;
+        });
+    }
+
+    private void runOnTickThread(Runnable task) {
+        PowerHolderComponent holder = PowerHolderComponent.get(entity);
+        if (holder != null) {
+            holder.runOnTickThread(task);
+        } else {
+            task.run();
+        }
+    }
+
+    /**
+     * Check if every container power this power was attached through is active.
+     */
+    final boolean isParentActive() {
+        for (Power current = parent; current != null; current = current.parent) {
+            if (!current.isActive()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Get the scope for tasks owned by this power.
+     * Its tasks are cancelled when the power is removed from its holder.
+     */
+    public final Scheduler.Scope getTaskScope() {
+        Scheduler.Scope scope = taskScope;
+        if (scope == null) {
+            synchronized (this) {
+                scope = taskScope;
+                if (scope == null) {
+                    // Nest under the container's or holder's scope so removing either covers it too
+                    PowerHolderComponent holder = PowerHolderComponent.get(entity);
+                    if (parent != null) {
+                        scope = parent.getTaskScope().newChild();
+                    } else {
+                        scope = holder != null
+                            ? holder.getTaskScope().newChild()
+                            : AspectPowers.SCHEDULER.newScope();
+                    }
+                    taskScope = scope;
+                }
+            }
+        }
+        return scope;
+    }
+
+    /**
+     * Run an action on behalf of this power.
+     * Tasks the action schedules, such as a delayed action, are owned by this
+     * power and cancelled when it is removed.
+     */
+    public final void runAction(Consumer<LivingEntity> action, LivingEntity target) {
+        Power previous = RUNNING.get();
+        RUNNING.set(this);
+        try {
+            action.accept(target);
+        } finally {
+            if (previous != null) {
+                RUNNING.set(previous);
+            } else {
+                RUNNING.remove();
+            }
+        }
+    }
+
+    /**
+     * Get the power whose action is running on this thread, if it is still held by its entity.
+     * Actions run while a power is being removed, such as its on-lost action, get no owner,
+     * so what they schedule outlives the power.
+     */
+    public static Power getActionOwner() {
+        Power power = RUNNING.get();
+        if (power == null) {
+            return null;
+        }
+        Power root = power;
+        while (root.parent != null) {
+            root = root.parent;
+        }
+        PowerHolderComponent holder = PowerHolderComponent.get(power.entity);
+        return holder != null && holder.getPower(root.getType()) == root ? power : null;
+    }
+
+    /**
+     * Cancel every task owned by this power.
+     * Called by the holder when the power is removed.
+     */
+    public final void cancelTasks() {
+        Scheduler.Scope scope;
+        synchronized (this) {
+            scope = taskScope;
+            taskScope = null;
+        }
+        if (scope != null) {
+            scope.close();
+        }
+    }
+
     protected final void setDataInstance(SerializableData.Instance dataInstance) {
         this.dataInstance = dataInstance;
     }
@@ -74,6 +344,9 @@ public class Power {
         this.serializableData = serializableData;
     }
 
+    /**
+     * Check if this power starts awake when added to a holder.
+     */
     public boolean shouldTick() {
         return shouldTick;
     }
@@ -83,7 +356,7 @@ public class Power {
     }
 
     /**
-     * Called every tick when the power is active (or always if shouldTickWhenInactive is true).
+     * Called every tick while the power is awake and active (or always if shouldTickWhenInactive is true).
      */
     public void tick() {
     }
@@ -138,6 +411,15 @@ public class Power {
     // Event hooks (new additions)
     // ========================================
 
+    /**
+     * Get the event hooks this power handles.
+     * The holder only dispatches those events to this power. By default this is
+     * every hook method the power class overrides; override to declare them explicitly.
+     */
+    public Set<PowerHook> getHooks() {
+        return PowerHook.overriddenBy(getClass());
+    }
+
     /**
      * Called when a key is pressed.
      * @param key The key identifier
@@ -176,24 +458,62 @@ public class Power {
      * Check if this power is currently active (all conditions pass).
      */
     public boolean isActive() {
-        return conditions.stream().allMatch(condition -> condition.test(entity));
+        if (conditions.isEmpty()) {
+            return true;
+        }
+        if (!cacheActiveState) {
+            return testConditions();
+        }
+        long tick = AspectPowers.getCurrentTick();
+        if (activeStateTick != tick) {
+            activeState = testConditions();
+            activeStateTick = tick;
+        }
+        return activeState;
+    }
+
+    private boolean testConditions() {
+        for (int i = 0, size = conditions.size(); i < size; i++) {
+            if (!conditions.get(i).test(entity)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Write the runtime state that has to survive a rejoin, such as a resource value.
+     * Configuration is not written: it is rebuilt from the power type on load.
+     */
+    public void writeState(JsonObject json) {
+        // Override in subclasses for custom state
     }
 
     /**
-     * Serialize power state to JSON for persistence.
+     * Restore the runtime state written by {@link #writeState(JsonObject)}.
+     * Also accepts the output of {@link #toJson()}, which older saves contain.
+     */
+    public void readState(JsonObject json) {
+        // Override in subclasses for custom state
+    }
+
+    /**
+     * Serialize the power's configuration together with its state to JSON.
+     * Persistence only needs {@link #writeState(JsonObject)}.
      */
     public JsonObject toJson() {
-        if (serializableData != null && dataInstance != null) {
-            return serializableData.write(dataInstance);
-        }
-        return new JsonObject();
+        JsonObject json = serializableData != null && dataInstance != null
+            ? serializableData.write(dataInstance)
+            : new JsonObject();
+        writeState(json);
+        return json;
     }
 
     /**
      * Deserialize power state from JSON.
      */
     public void fromJson(JsonObject json) {
-        // Override in subclasses for custom state
+        readState(json);
     }
 
     public PowerType<?> getType() {
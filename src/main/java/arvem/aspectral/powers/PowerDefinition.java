@@ -1,25 +1,55 @@
 package arvem.aspectral.powers;
 
+import arvem.aspectral.api.LivingEntity;
 import com.google.gson.JsonObject;
 
+import java.util.List;
+
 /**
  * Holds the definition of a power.
  * This is the template + data, not the actual power instance.
  * <p>
  * PowerDefinitions are created from power JSON files and stored
  * in the PowerTypeRegistry for reuse across multiple aspects.
+ * The JSON is parsed once when the definition is loaded; the parsed
+ * factory instance on the power type is shared by every power created from it.
  */
 public class PowerDefinition {
     public final PowerType<?> powerType;
     public final JsonObject data;
 
+    // Every power reference read from the data, bound once all powers are loaded
+    private final List<PowerTypeReference> references;
+
     public PowerDefinition(PowerType<?> powerType, JsonObject data) {
+        this(powerType, data, List.of());
+    }
+
+    public PowerDefinition(PowerType<?> powerType, JsonObject data, List<PowerTypeReference> references) {
         this.powerType = powerType;
         this.data = data;
+        this.references = List.copyOf(references);
     }
 
+    /**
+     * Get the ID of the factory this power is built with, such as {@code aspectral:resource}.
+     */
     public String getTypeId() {
-        return powerType.getIdentifier();
+        return powerType.getFactoryId();
+    }
+
+    /**
+     * Get the references to other powers in this power's data, including nested conditions and actions.
+     */
+    public List<PowerTypeReference> getReferences() {
+        return references;
+    }
+
+    /**
+     * Create an instance of this power for the given entity, from the data parsed at load.
+     */
+    public Power create(LivingEntity entity) {
+        return powerType.create(entity);
     }
 }
 
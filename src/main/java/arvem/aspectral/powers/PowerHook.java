@@ -0,0 +1,57 @@
+package arvem.aspectral.powers;
+
+import java.lang.reflect.Method;
+import java.util.EnumSet;
+import java.util.Set;
+
+/**
+ * Event hooks a power can handle.
+ * Holders keep one listener list per hook, so an event only reaches the powers
+ * that actually react to it.
+ */
+public enum PowerHook {
+    KEY_PRESSED("onKeyPressed", String.class),
+    DAMAGE("onDamage", Object.class),
+    ATTACK("onAttack", Object.class),
+    MOVE("onMove", Object.class);
+
+    private static final PowerHook[] VALUES = values();
+
+    // Hooks each power class overrides, detected once per class
+    private static final ClassValue<Set<PowerHook>> OVERRIDDEN = new ClassValue<>() {
+        @Override
+        protected Set<PowerHook> computeValue(Class<?> type) {
+            EnumSet<PowerHook> hooks = EnumSet.noneOf(PowerHook.class);
+            for (PowerHook hook : VALUES) {
+                if (hook.isOverriddenBy(type)) {
+                    hooks.add(hook);
+                }
+            }
+            return hooks;
+        }
+    };
+
+    private final String methodName;
+    private final Class<?> parameterType;
+
+    PowerHook(String methodName, Class<?> parameterType) {
+        this.methodName = methodName;
+        this.parameterType = parameterType;
+    }
+
+    /**
+     * Get the hooks a power class overrides.
+     */
+    public static Set<PowerHook> overriddenBy(Class<? extends Power> type) {
+        return OVERRIDDEN.get(type);
+    }
+
+    private boolean isOverriddenBy(Class<?> type) {
+        try {
+            Method method = type.getMethod(methodName, parameterType);
+            return method.getDeclaringClass() != Power.class;
+        } catch (NoSuchMethodException e) {
+            return false;
+        }
+    }
+}
@@ -0,0 +1,175 @@
+package arvem.aspectral.powers;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * Schedules ticks for the powers of a single holder.
+ * <p>
+ * Powers are either awake (ticked every tick), asleep (never ticked), or asleep
+ * with a wake-up tick. Only awake powers are visited, so idle powers cost nothing
+ * and tick time scales with the number of busy powers rather than the total.
+ * <p>
+ * Powers control their own state through {@link Power#requestTick()},
+ * {@link Power#sleep()} and {@link Power#wakeAt(long)}. A ticker is not thread-safe
+ * and must only be used from the thread that ticks its holder; see
+ * {@link arvem.aspectral.component.PowerHolderComponent#runOnTickThread(Runnable)}.
+ */
+public class PowerTicker {
+
+    // Powers that are queued for ticking; entries that went to sleep are dropped after each tick
+    private final List<Power> awake = new ArrayList<>();
+
+    // Sleeping powers with a scheduled wake-up, ordered by wake-up tick
+    private final PriorityQueue<Power> sleeping = new PriorityQueue<>(Comparator.comparingLong(p -> p.wakeTick));
+
+    private boolean iterating = false;
+
+    /**
+     * Start scheduling a power.
+     * Powers that asked for ticks before being attached (or that called
+     * {@code setTicking()}) are woken immediately.
+     */
+    public void attach(Power power) {
+        power.ticker = this;
+        if (power.wakeTick >= 0) {
+            long wakeTick = power.wakeTick;
+            power.wakeTick = -1;
+            wakeAt(power, wakeTick);
+        } else if (power.awake || power.shouldTick()) {
+            wake(power);
+        }
+    }
+
+    /**
+     * Stop scheduling a power.
+     */
+    public void detach(Power power) {
+        if (power.ticker != this) {
+            return;
+        }
+        cancelWakeUp(power);
+        power.awake = false;
+        if (power.queued && !iterating) {
+            awake.remove(power);
+            power.queued = false;
+        }
+        power.ticker = null;
+    }
+
+    /**
+     * Detach every scheduled power.
+     * While ticking, the awake queue is only emptied once the tick is done.
+     */
+    public void clear() {
+        for (Power power : awake) {
+            power.awake = false;
+            power.ticker = null;
+            if (!iterating) {
+                power.queued = false;
+            }
+        }
+        for (Power power : sleeping) {
+            power.wakeTick = -1;
+            power.ticker = null;
+        }
+        if (!iterating) {
+            awake.clear();
+        }
+        sleeping.clear();
+    }
+
+    void wake(Power power) {
+        cancelWakeUp(power);
+        power.awake = true;
+        if (!power.queued) {
+            power.queued = true;
+            awake.add(power);
+        }
+    }
+
+    void sleep(Power power) {
+        cancelWakeUp(power);
+        power.awake = false;
+    }
+
+    void wakeAt(Power power, long tick) {
+        sleep(power);
+        power.wakeTick = tick;
+        sleeping.add(power);
+    }
+
+    private void cancelWakeUp(Power power) {
+        if (power.wakeTick >= 0) {
+            sleeping.remove(power);
+            power.wakeTick = -1;
+        }
+    }
+
+    /**
+     * Tick every awake power.
+     * Powers woken during this tick are first ticked on the next one.
+     *
+     * @param currentTick The global tick number, used for scheduled wake-ups
+     */
+    public void tick(long currentTick) {
+        while (!sleeping.isEmpty() && sleeping.peek().wakeTick <= currentTick) {
+            Power power = sleeping.poll();
+            power.wakeTick = -1;
+            wake(power);
+        }
+
+        if (awake.isEmpty()) {
+            return;
+        }
+
+        iterating = true;
+        try {
+            int count = awake.size();
+            for (int i = 0; i < count; i++) {
+                Power power = awake.get(i);
+                if (power.awake && power.isParentActive() && (power.shouldTickWhenInactive() || power.isActive())) {
+                    power.tick();
+                }
+            }
+        } finally {
+            iterating = false;
+            compact();
+        }
+    }
+
+    /**
+     * Drop queue entries for powers that went to sleep.
+     */
+    private void compact() {
+        int kept = 0;
+        int size = awake.size();
+        for (int i = 0; i < size; i++) {
+            Power power = awake.get(i);
+            if (power.awake) {
+                awake.set(kept++, power);
+            } else {
+                power.queued = false;
+            }
+        }
+        if (kept < size) {
+            awake.subList(kept, size).clear();
+        }
+    }
+
+    /**
+     * Get the number of powers currently queued for ticking.
+     */
+    public int getAwakeCount() {
+        return awake.size();
+    }
+
+    /**
+     * Get the number of sleeping powers with a scheduled wake-up.
+     */
+    public int getScheduledCount() {
+        return sleeping.size();
+    }
+}
@@ -8,6 +8,10 @@ import com.google.gson.JsonObject;
 /**
  * Represents a type of power that can be created for entities.
  * Each PowerType is a template that produces Power instances.
+ * <p>
+ * The identifier is the ID of the power (such as {@code aspectral:mana}), which
+ * entities look their powers up by; the factory it is built with has an ID of
+ * its own (such as {@code aspectral:resource}), shared by every power of that kind.
  *
  * @param <T> The specific power subclass this type creates
  */
@@ -34,6 +38,13 @@ public class PowerType<T extends Power> {
         return identifier;
     }
 
+    /**
+     * Get the ID of the factory this power is built with.
+     */
+    public String getFactoryId() {
+        return factory.getFactory().getSerializerId();
+    }
+
     public PowerFactory<T>.Instance getFactory() {
         return factory;
     }
@@ -82,6 +93,8 @@ public class PowerType<T extends Power> {
     /**
      * Create an instance of this power for the given entity from JSON data.
      * This allows creating power instances with custom configuration.
+     * The data is parsed again on every call; use {@link #create(LivingEntity)}
+     * to reuse the configuration this type was loaded with.
      * @param entity The entity this power will be attached to
      * @param data JSON data containing power configuration
      * @return A new power instance configured with the provided data
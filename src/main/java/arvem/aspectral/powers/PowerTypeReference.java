@@ -1,34 +1,86 @@
 package arvem.aspectral.powers;
 
 import arvem.aspectral.AspectPowers;
+import arvem.aspectral.power.PowerRegistry;
+
+import java.util.List;
+import java.util.concurrent.Callable;
 
 /**
  * A reference to an PowerType by identifier.
- * Used for lazy loading of power types from JSON.
+ * <p>
+ * References read while loading data files are bound to their power type once
+ * everything is loaded (see {@link arvem.aspectral.power.PowerLinker}), so
+ * resolving them never touches a registry, and a reference to a missing power
+ * stays missing without being looked up again. References created any other
+ * way still resolve lazily.
  */
 public class PowerTypeReference {
 
+    // References created by the parse running on this thread, while one is being collected
+    private static final ThreadLocal<List<PowerTypeReference>> COLLECTING = new ThreadLocal<>();
+
     private final String identifier;
-    private PowerType<?> cachedType;
+    private volatile PowerType<?> cachedType;
+    private volatile boolean linked;
 
     public PowerTypeReference(String identifier) {
         this.identifier = identifier;
     }
 
+    /**
+     * Create a reference read from data, recording it for the parse that is collecting references, if any.
+     */
+    public static PowerTypeReference of(String identifier) {
+        PowerTypeReference reference = new PowerTypeReference(identifier);
+        List<PowerTypeReference> collecting = COLLECTING.get();
+        if (collecting != null) {
+            collecting.add(reference);
+        }
+        return reference;
+    }
+
+    /**
+     * Run a parse, adding every reference it reads to a list.
+     */
+    public static <T> T collect(List<PowerTypeReference> into, Callable<T> parse) throws Exception {
+        List<PowerTypeReference> previous = COLLECTING.get();
+        COLLECTING.set(into);
+        try {
+            return parse.call();
+        } finally {
+            COLLECTING.set(previous);
+        }
+    }
+
     public String getIdentifier() {
         return identifier;
     }
 
     /**
-     * Get the referenced power type, loading it from the registry if necessary.
+     * Get the referenced power type, loading it from the registry if this reference was never bound.
      */
     public PowerType<?> getReferencedPowerType() {
+        if (linked) {
+            return cachedType;
+        }
         if (cachedType == null && AspectPowers.getInstance() != null) {
-            cachedType = AspectPowers.getInstance().getPowerRegistry().getPowerType(identifier);
+            PowerDefinition definition = PowerRegistry.getInstance().getPower(identifier);
+            cachedType = definition != null
+                ? definition.powerType
+                : AspectPowers.getInstance().getPowerRegistry().getPowerType(identifier);
         }
         return cachedType;
     }
 
+    /**
+     * Bind this reference to a power type, or to nothing if the power does not exist.
+     */
+    public void bind(PowerType<?> powerType) {
+        this.cachedType = powerType;
+        this.linked = true;
+    }
+
     /**
      * Check if this reference points to a valid power type.
      */
@@ -53,5 +105,3 @@ public class PowerTypeReference {
         return "PowerTypeReference[" + identifier + "]";
     }
 }
-
-
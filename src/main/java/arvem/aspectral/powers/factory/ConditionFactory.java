@@ -1,6 +1,7 @@
 package arvem.aspectral.powers.factory;
 
 import arvem.aspectral.data.SerializableData;
+import arvem.aspectral.powers.factory.condition.ConditionCompiler;
 import com.google.gson.JsonObject;
 import io.netty.buffer.ByteBuf;
 
@@ -38,20 +39,38 @@ public class ConditionFactory<T> implements Factory {
 
     /**
      * An instance of this condition factory with bound data.
+     * The condition tree below this instance is compiled once on creation, reusing
+     * the compiled form of nested instances; see {@link ConditionCompiler}.
      */
     public class Instance implements Predicate<T> {
 
         private final SerializableData.Instance dataInstance;
         private final Predicate<T> condition;
+        private final Predicate<T> compiled;
 
         private Instance(SerializableData.Instance data) {
             this.dataInstance = data;
             this.condition = conditionConstructor.apply(data);
+            this.compiled = ConditionCompiler.compile(this);
         }
 
         @Override
         public boolean test(T t) {
-            return condition.test(t);
+            return compiled.test(t);
+        }
+
+        /**
+         * Get the predicate built by the factory, before compilation.
+         */
+        public Predicate<T> getCondition() {
+            return condition;
+        }
+
+        /**
+         * Get the compiled predicate this instance evaluates.
+         */
+        public Predicate<T> getCompiled() {
+            return compiled;
         }
 
         public void write(ByteBuf buf) {
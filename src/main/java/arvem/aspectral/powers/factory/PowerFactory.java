@@ -5,6 +5,7 @@ import arvem.aspectral.powers.PowerType;
 import arvem.aspectral.api.LivingEntity;
 import arvem.aspectral.data.AspectPowersDataTypes;
 import arvem.aspectral.data.SerializableData;
+import arvem.aspectral.data.SerializableDataTypes;
 import com.google.gson.JsonObject;
 import io.netty.buffer.ByteBuf;
 
@@ -40,6 +41,7 @@ public class PowerFactory<A extends Power> implements Factory {
         if (!hasConditions) {
             hasConditions = true;
             data.add("condition", AspectPowersDataTypes.ENTITY_CONDITION, null);
+            data.add("cache_condition", SerializableDataTypes.BOOLEAN, false);
         }
         return this;
     }
@@ -73,6 +75,10 @@ public class PowerFactory<A extends Power> implements Factory {
             if (hasConditions && dataInstance.isPresent("condition")) {
                 power.addCondition(dataInstance.get("condition"));
             }
+            if (hasConditions && dataInstance.isPresent("cache_condition")
+                && (boolean) dataInstance.get("cache_condition")) {
+                power.setCacheActiveState(true);
+            }
 
             return power;
         }
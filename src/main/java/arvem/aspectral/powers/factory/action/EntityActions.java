@@ -2,10 +2,12 @@ package arvem.aspectral.powers.factory.action;
 
 import arvem.aspectral.AspectPowers;
 import arvem.aspectral.component.PowerHolderComponent;
+import arvem.aspectral.powers.Power;
 import arvem.aspectral.powers.PowerTypeReference;
 import arvem.aspectral.powers.factory.ActionFactory;
 import arvem.aspectral.powers.impl.CooldownPower;
 import arvem.aspectral.powers.impl.ResourcePower;
+import arvem.aspectral.api.HytaleLivingEntityAdapter;
 import arvem.aspectral.api.LivingEntity;
 import arvem.aspectral.api.Player;
 import arvem.aspectral.data.AspectPowersDataTypes;
@@ -14,6 +16,7 @@ import arvem.aspectral.data.SerializableData;
 import arvem.aspectral.data.SerializableDataTypes;
 
 import java.util.List;
+import java.util.concurrent.Executor;
 import java.util.function.Consumer;
 
 /**
@@ -71,7 +74,21 @@ public class EntityActions {
             data -> {
                 int ticks = data.get("ticks");
                 Consumer<LivingEntity> action = data.get("action");
-                return entity -> AspectPowers.SCHEDULER.schedule(() -> action.accept(entity), ticks);
+                return entity -> {
+                    // Owned by the power running this action, so it is cancelled when the power is removed;
+                    // otherwise by the entity's holder, so it is cancelled if the entity goes away first
+                    Power owner = Power.getActionOwner();
+                    if (owner != null) {
+                        owner.getTaskScope().schedule(() -> owner.runAction(action, entity), ticks, worldExecutor(entity));
+                        return;
+                    }
+                    PowerHolderComponent holder = PowerHolderComponent.get(entity);
+                    if (holder != null) {
+                        holder.getTaskScope().schedule(() -> action.accept(entity), ticks, worldExecutor(entity));
+                    } else {
+                        AspectPowers.SCHEDULER.schedule(() -> action.accept(entity), ticks, worldExecutor(entity));
+                    }
+                };
             }
         ));
 
@@ -256,6 +273,16 @@ public class EntityActions {
             }
         ));
     }
-}
-
 
+    /**
+     * Executor that runs a task on the entity's current world thread,
+     * or null to run it on the ticking thread.
+     */
+    private static Executor worldExecutor(LivingEntity entity) {
+        if (entity instanceof HytaleLivingEntityAdapter adapter) {
+            // Resolved when the task is due, so it follows the entity across worlds
+            return task -> adapter.getWorld().execute(task);
+        }
+        return null;
+    }
+}
@@ -0,0 +1,476 @@
+package arvem.aspectral.powers.factory.condition;
+
+import arvem.aspectral.AspectPowers;
+import arvem.aspectral.data.SerializableData;
+import arvem.aspectral.powers.factory.ConditionFactory;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.Predicate;
+
+/**
+ * Compiles condition trees into flat predicates.
+ * <p>
+ * Conditions read from JSON are nested {@link ConditionFactory.Instance} objects, with
+ * one lambda and one wrapper per node. The compiler rewrites the tree once at load time:
+ * <ul>
+ *   <li>{@code constant} nodes are folded into their parents</li>
+ *   <li>double negations are removed</li>
+ *   <li>nested {@code and}/{@code or} nodes are merged into a single array loop</li>
+ *   <li>leaf wrappers are unwrapped to the underlying predicate</li>
+ * </ul>
+ * The result behaves exactly like the original tree, but evaluation cost depends on the
+ * number of leaves rather than the depth of the JSON.
+ * <p>
+ * When adaptive ordering is enabled, compiled and/or nodes sample the cost and pass rate
+ * of their children and periodically move cheap, decisive children to the front. Conditions
+ * are side-effect free, so the order never changes the result.
+ */
+public final class ConditionCompiler {
+
+    private static final Predicate<?> ALWAYS = t -> true;
+    private static final Predicate<?> NEVER = t -> false;
+
+    // One in (SAMPLE_MASK + 1) evaluations of a compound node is sampled
+    private static final int SAMPLE_MASK = 63;
+    // Children are reordered after this many samples
+    private static final int SAMPLES_PER_REORDER = 32;
+
+    private static volatile boolean adaptiveOrdering = false;
+
+    private ConditionCompiler() {
+    }
+
+    /**
+     * Enable or disable adaptive reordering of compound conditions.
+     * Takes effect for all compiled conditions immediately.
+     */
+    public static void setAdaptiveOrdering(boolean enabled) {
+        adaptiveOrdering = enabled;
+    }
+
+    /**
+     * Check if adaptive reordering of compound conditions is enabled.
+     */
+    public static boolean isAdaptiveOrdering() {
+        return adaptiveOrdering;
+    }
+
+    /**
+     * Compile a condition into an equivalent flat predicate.
+     *
+     * @param condition The condition to compile (may be a plain predicate)
+     * @return The compiled predicate, or the input itself if there was nothing to rewrite
+     */
+    public static <T> Predicate<T> compile(Predicate<T> condition) {
+        if (condition == null) {
+            return null;
+        }
+        return emit(lower(condition));
+    }
+
+    // ========================================
+    // Lowering: predicate -> simplified node tree
+    // ========================================
+
+    @SuppressWarnings({"rawtypes", "unchecked"})
+    private static <T> Node<T> lower(Predicate<T> condition) {
+        if (condition instanceof ConditionFactory.Instance instance) {
+            String id = instance.getFactory().getSerializerId();
+
+            // Nested instances compiled their own subtree when they were created; only
+            // the instance being compiled has no compiled form yet
+            Predicate<T> compiled = (Predicate<T>) instance.getCompiled();
+            if (compiled != null) {
+                return lowerCompiled(compiled, id);
+            }
+
+            SerializableData.Instance data = instance.getDataInstance();
+            if (id.equals(Ids.CONSTANT)) {
+                Object value = data.get("value");
+                return Node.constant(value == null || (Boolean) value);
+            }
+            if (id.equals(Ids.NOT) && data.get("condition") != null) {
+                return negate(lower((Predicate<T>) data.get("condition")));
+            }
+            if ((id.equals(Ids.AND) || id.equals(Ids.OR)) && data.get("conditions") != null) {
+                boolean and = id.equals(Ids.AND);
+                List<Predicate<T>> children = (List<Predicate<T>>) data.get("conditions");
+                List<Node<T>> lowered = new ArrayList<>(children.size());
+                for (Predicate<T> child : children) {
+                    lowered.add(lower(child));
+                }
+                return combine(and, lowered);
+            }
+            return Node.leaf((Predicate<T>) instance.getCondition(), id);
+        }
+        return lowerCompiled(condition, null);
+    }
+
+    /**
+     * Lower an already compiled predicate, looking only at its top node.
+     * Compiled trees are already simplified, so their children are kept as leaves;
+     * that is enough to merge the top node into a parent of the same kind or to
+     * cancel a double negation, and keeps lowering linear in the size of the tree.
+     */
+    @SuppressWarnings({"rawtypes", "unchecked"})
+    private static <T> Node<T> lowerCompiled(Predicate<T> condition, String label) {
+        if (condition instanceof Compound compound) {
+            Child<T>[] children = compound.children;
+            List<Node<T>> lowered = new ArrayList<>(children.length);
+            for (Child<T> child : children) {
+                lowered.add(Node.leaf(child.condition, child.label));
+            }
+            return new Node<>(compound instanceof AllOf ? Kind.AND : Kind.OR, false, null, null, lowered);
+        }
+        if (condition instanceof Negation negation) {
+            return Node.not(Node.leaf((Predicate<T>) negation.condition, negation.label));
+        }
+        if (condition == ALWAYS || condition == NEVER) {
+            return Node.constant(condition == ALWAYS);
+        }
+        return Node.leaf(condition, label);
+    }
+
+    private static <T> Node<T> negate(Node<T> node) {
+        return switch (node.kind) {
+            case CONSTANT -> Node.constant(!node.value);
+            case NOT -> node.children.get(0);
+            default -> Node.not(node);
+        };
+    }
+
+    /**
+     * Merge children into one and/or node, folding constants and flattening
+     * nested nodes of the same kind.
+     */
+    private static <T> Node<T> combine(boolean and, List<Node<T>> children) {
+        Kind kind = and ? Kind.AND : Kind.OR;
+        List<Node<T>> flat = new ArrayList<>(children.size());
+        for (Node<T> child : children) {
+            if (child.kind == Kind.CONSTANT) {
+                // true is neutral for and, false is neutral for or
+                if (child.value == and) {
+                    continue;
+                }
+                return Node.constant(!and);
+            }
+            if (child.kind == kind) {
+                flat.addAll(child.children);
+            } else {
+                flat.add(child);
+            }
+        }
+        if (flat.isEmpty()) {
+            return Node.constant(and);
+        }
+        if (flat.size() == 1) {
+            return flat.get(0);
+        }
+        return new Node<>(kind, false, null, null, flat);
+    }
+
+    // ========================================
+    // Emission: node tree -> predicate
+    // ========================================
+
+    @SuppressWarnings("unchecked")
+    private static <T> Predicate<T> emit(Node<T> node) {
+        return switch (node.kind) {
+            case CONSTANT -> (Predicate<T>) (node.value ? ALWAYS : NEVER);
+            case LEAF -> node.leaf;
+            case NOT -> new Negation<>(emit(node.children.get(0)), labelOf(node.children.get(0)));
+            case AND -> new AllOf<>(emitAll(node.children));
+            case OR -> new AnyOf<>(emitAll(node.children));
+        };
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> Child<T>[] emitAll(List<Node<T>> nodes) {
+        Child<T>[] children = new Child[nodes.size()];
+        for (int i = 0; i < children.length; i++) {
+            Node<T> node = nodes.get(i);
+            children[i] = new Child<>(emit(node), labelOf(node));
+        }
+        return children;
+    }
+
+    private static String labelOf(Node<?> node) {
+        if (node.label != null) {
+            return node.label;
+        }
+        return switch (node.kind) {
+            case CONSTANT -> String.valueOf(node.value);
+            case LEAF -> node.leaf.getClass().getSimpleName();
+            case NOT -> "not";
+            case AND -> "and";
+            case OR -> "or";
+        };
+    }
+
+    private enum Kind {
+        CONSTANT, LEAF, NOT, AND, OR
+    }
+
+    private static final class Node<T> {
+        private final Kind kind;
+        private final boolean value;
+        private final Predicate<T> leaf;
+        private final String label;
+        private final List<Node<T>> children;
+
+        private Node(Kind kind, boolean value, Predicate<T> leaf, String label, List<Node<T>> children) {
+            this.kind = kind;
+            this.value = value;
+            this.leaf = leaf;
+            this.label = label;
+            this.children = children;
+        }
+
+        static <T> Node<T> constant(boolean value) {
+            return new Node<>(Kind.CONSTANT, value, null, null, List.of());
+        }
+
+        static <T> Node<T> leaf(Predicate<T> predicate, String label) {
+            return new Node<>(Kind.LEAF, false, predicate, label, List.of());
+        }
+
+        static <T> Node<T> not(Node<T> child) {
+            return new Node<>(Kind.NOT, false, null, null, List.of(child));
+        }
+    }
+
+    // ========================================
+    // Debug output
+    // ========================================
+
+    /**
+     * Describe the current evaluation order of a condition, e.g.
+     * {@code and[sneaking, or[health, resource]]}. When adaptive ordering has
+     * collected samples, each child also shows its pass rate and average cost.
+     */
+    @SuppressWarnings("rawtypes")
+    public static String describe(Predicate<?> condition) {
+        if (condition instanceof ConditionFactory.Instance instance) {
+            Predicate<?> compiled = instance.getCompiled();
+            if (compiled instanceof Compound || compiled instanceof Negation) {
+                return describe(compiled);
+            }
+            return compiled == ALWAYS || compiled == NEVER
+                ? String.valueOf(compiled == ALWAYS)
+                : instance.getFactory().getSerializerId();
+        }
+        if (condition == ALWAYS || condition == NEVER) {
+            return String.valueOf(condition == ALWAYS);
+        }
+        StringBuilder builder = new StringBuilder();
+        describe(condition, null, builder);
+        return builder.toString();
+    }
+
+    private static void describe(Predicate<?> condition, String label, StringBuilder builder) {
+        if (condition instanceof Compound<?> compound) {
+            builder.append(compound instanceof AllOf ? "and[" : "or[");
+            Child<?>[] children = compound.children;
+            for (int i = 0; i < children.length; i++) {
+                if (i > 0) {
+                    builder.append(", ");
+                }
+                Child<?> child = children[i];
+                describe(child.condition, child.label, builder);
+                if (child.samples > 0) {
+                    builder.append(String.format(" (%d%% pass, %dns)",
+                        child.passes * 100 / child.samples, child.nanos / child.samples));
+                }
+            }
+            builder.append(']');
+        } else if (condition instanceof Negation<?> negation) {
+            builder.append("not(");
+            describe(negation.condition, negation.label, builder);
+            builder.append(')');
+        } else {
+            builder.append(label != null ? label : condition.getClass().getSimpleName());
+        }
+    }
+
+    // ========================================
+    // Compiled predicates
+    // ========================================
+
+    /**
+     * A child of a compound node, with its sampled statistics.
+     * Statistics are updated without synchronization; they only steer the
+     * evaluation order, so an occasional lost update does no harm.
+     */
+    static final class Child<T> {
+        final Predicate<T> condition;
+        final String label;
+        long samples;
+        long passes;
+        long nanos;
+
+        Child(Predicate<T> condition, String label) {
+            this.condition = condition;
+            this.label = label;
+        }
+
+        /**
+         * Expected cost of evaluating this child before the parent short-circuits.
+         * Lower is better: cheap children that usually decide the result go first.
+         *
+         * @param decidingOnPass True if a pass decides the parent (or), false if a failure does (and)
+         */
+        double rank(boolean decidingOnPass) {
+            if (samples == 0) {
+                return 0.0;
+            }
+            double decisive = (double) (decidingOnPass ? passes : samples - passes) / samples;
+            double cost = (double) nanos / samples;
+            // Laplace smoothing keeps never-decisive children comparable
+            return cost / (decisive + 1.0 / (samples + 2));
+        }
+    }
+
+    /**
+     * An and/or node over an array of children.
+     */
+    abstract static class Compound<T> implements Predicate<T> {
+        volatile Child<T>[] children;
+        private int evaluations;
+        private int samplesSinceReorder;
+
+        Compound(Child<T>[] children) {
+            this.children = children;
+        }
+
+        @Override
+        public final boolean test(T t) {
+            if (adaptiveOrdering && (++evaluations & SAMPLE_MASK) == 0) {
+                return sample(t);
+            }
+            return evaluate(children, t);
+        }
+
+        abstract boolean evaluate(Child<T>[] children, T t);
+
+        abstract boolean decidingOnPass();
+
+        /**
+         * Evaluate every child, recording cost and result, then combine the results.
+         * Children have no side effects, so evaluating past the short-circuit point is safe.
+         */
+        private boolean sample(T t) {
+            Child<T>[] current = children;
+            boolean decidingOnPass = decidingOnPass();
+            boolean decided = false;
+            for (Child<T> child : current) {
+                long start = System.nanoTime();
+                boolean passed = child.condition.test(t);
+                child.nanos += System.nanoTime() - start;
+                child.samples++;
+                if (passed) {
+                    child.passes++;
+                }
+                if (passed == decidingOnPass) {
+                    decided = true;
+                }
+            }
+            if (++samplesSinceReorder >= SAMPLES_PER_REORDER) {
+                samplesSinceReorder = 0;
+                reorder(current, decidingOnPass);
+            }
+            return decided == decidingOnPass;
+        }
+
+        private void reorder(Child<T>[] current, boolean decidingOnPass) {
+            Child<T>[] sorted = Arrays.copyOf(current, current.length);
+            Arrays.sort(sorted, Comparator.comparingDouble(child -> child.rank(decidingOnPass)));
+            for (Child<T> child : sorted) {
+                // Halve the history so the order follows changing behaviour
+                child.samples >>= 1;
+                child.passes >>= 1;
+                child.nanos >>= 1;
+            }
+            children = sorted;
+        }
+    }
+
+    /**
+     * True if every condition is true. Evaluated in order, stopping at the first failure.
+     */
+    static final class AllOf<T> extends Compound<T> {
+        AllOf(Child<T>[] children) {
+            super(children);
+        }
+
+        @Override
+        boolean evaluate(Child<T>[] children, T t) {
+            for (Child<T> child : children) {
+                if (!child.condition.test(t)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        @Override
+        boolean decidingOnPass() {
+            return false;
+        }
+    }
+
+    /**
+     * True if any condition is true. Evaluated in order, stopping at the first success.
+     */
+    static final class AnyOf<T> extends Compound<T> {
+        AnyOf(Child<T>[] children) {
+            super(children);
+        }
+
+        @Override
+        boolean evaluate(Child<T>[] children, T t) {
+            for (Child<T> child : children) {
+                if (child.condition.test(t)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        @Override
+        boolean decidingOnPass() {
+            return true;
+        }
+    }
+
+    /**
+     * Inverts a condition.
+     */
+    static final class Negation<T> implements Predicate<T> {
+        final Predicate<T> condition;
+        final String label;
+
+        Negation(Predicate<T> condition, String label) {
+            this.condition = condition;
+            this.label = label;
+        }
+
+        @Override
+        public boolean test(T t) {
+            return !condition.test(t);
+        }
+    }
+
+    /**
+     * Identifiers of the structural conditions, resolved on first use
+     * since the namespace comes from the plugin manifest.
+     */
+    private static final class Ids {
+        static final String CONSTANT = AspectPowers.identifier("constant");
+        static final String AND = AspectPowers.identifier("and");
+        static final String OR = AspectPowers.identifier("or");
+        static final String NOT = AspectPowers.identifier("not");
+    }
+}
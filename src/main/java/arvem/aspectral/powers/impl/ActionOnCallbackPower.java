@@ -38,35 +38,35 @@ public class ActionOnCallbackPower extends Power {
     @Override
     public void onGained() {
         if (onGainAction != null && isActive()) {
-            onGainAction.accept(entity);
+            runAction(onGainAction, entity);
         }
     }
 
     @Override
     public void onLost() {
         if (onLostAction != null) {
-            onLostAction.accept(entity);
+            runAction(onLostAction, entity);
         }
     }
 
     @Override
     public void onAdded(boolean onSync) {
         if (!onSync && onAddedAction != null && isActive()) {
-            onAddedAction.accept(entity);
+            runAction(onAddedAction, entity);
         }
     }
 
     @Override
     public void onRemoved(boolean onSync) {
         if (!onSync && onRemovedAction != null) {
-            onRemovedAction.accept(entity);
+            runAction(onRemovedAction, entity);
         }
     }
 
     @Override
     public void onRespawn() {
         if (onRespawnAction != null && isActive()) {
-            onRespawnAction.accept(entity);
+            runAction(onRespawnAction, entity);
         }
     }
 
@@ -41,7 +41,7 @@ public class ActionOverTimePower extends Power {
         // Rising edge - just became active
         if (currentlyActive && !wasActive) {
             if (risingAction != null) {
-                risingAction.accept(entity);
+                runAction(risingAction, entity);
             }
             tickCount = 0;
         }
@@ -49,7 +49,7 @@ public class ActionOverTimePower extends Power {
         // Falling edge - just became inactive
         if (!currentlyActive && wasActive) {
             if (fallingAction != null) {
-                fallingAction.accept(entity);
+                runAction(fallingAction, entity);
             }
         }
 
@@ -58,7 +58,7 @@ public class ActionOverTimePower extends Power {
             tickCount++;
             if (tickCount >= interval) {
                 if (risingAction != null) {
-                    risingAction.accept(entity);
+                    runAction(risingAction, entity);
                 }
                 tickCount = 0;
             }
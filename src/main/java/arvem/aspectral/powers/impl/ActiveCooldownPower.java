@@ -32,7 +32,7 @@ public class ActiveCooldownPower extends CooldownPower implements Activatable {
     public void onActivate() {
         if (isActive() && isReady()) {
             if (action != null) {
-                action.accept(entity);
+                runAction(action, entity);
             }
             use();
         }
@@ -8,6 +8,7 @@ import arvem.aspectral.api.LivingEntity;
 import arvem.aspectral.data.AspectPowersDataTypes;
 import arvem.aspectral.data.SerializableData;
 import arvem.aspectral.data.SerializableDataTypes;
+import arvem.aspectral.util.Cooldown;
 
 import java.util.function.Consumer;
 import java.util.function.Predicate;
@@ -19,8 +20,7 @@ public class AttackerActionWhenHitPower extends Power {
 
     private final Consumer<LivingEntity> action;
     private final Predicate<LivingEntity> attackerCondition;
-    private final int cooldown;
-    private int cooldownRemaining = 0;
+    private final Cooldown cooldownTimer;
 
     public AttackerActionWhenHitPower(PowerType<AttackerActionWhenHitPower> type, LivingEntity entity,
                                       Consumer<LivingEntity> action,
@@ -29,25 +29,19 @@ public class AttackerActionWhenHitPower extends Power {
         super(type, entity);
         this.action = action;
         this.attackerCondition = attackerCondition;
-        this.cooldown = cooldown;
-        if (cooldown > 0) setTicking();
-    }
-
-    @Override
-    public void tick() {
-        if (cooldownRemaining > 0) cooldownRemaining--;
+        this.cooldownTimer = new Cooldown(cooldown);
     }
 
     public void onHitBy(LivingEntity attacker) {
         if (!isActive()) return;
         if (attacker == null) return;
-        if (cooldownRemaining > 0) return;
+        if (!cooldownTimer.isReady()) return;
         if (attackerCondition != null && !attackerCondition.test(attacker)) return;
 
         if (action != null) {
-            action.accept(attacker);
+            runAction(action, attacker);
         }
-        cooldownRemaining = cooldown;
+        cooldownTimer.trigger();
     }
 
     public static PowerFactory<AttackerActionWhenHitPower> createFactory() {
@@ -6,6 +6,7 @@ import arvem.aspectral.powers.PowerType;
 import arvem.aspectral.powers.factory.PowerFactory;
 import arvem.aspectral.api.HytalePlayerAdapter;
 import arvem.aspectral.api.LivingEntity;
+import arvem.aspectral.api.StatIndices;
 import arvem.aspectral.data.AspectPowersDataTypes;
 import arvem.aspectral.data.SerializableData;
 import arvem.aspectral.data.SerializableDataTypes;
@@ -23,6 +24,10 @@ public class AttributeModifierPower extends Power {
 
     private boolean applied = false;
 
+    // Resolved stat index, valid while the StatIndices generation matches
+    private int statIndex = StatIndices.MISSING;
+    private int statIndexGeneration = -1;
+
     /**
      * Create from PowerType and entity with parameters.
      */
@@ -66,10 +71,9 @@ public class AttributeModifierPower extends Power {
 
                 if (statMap != null) {
                     // Get the stat index from attribute name
-                    var assetMap = com.hypixel.hytale.server.core.modules.entitystats.asset.EntityStatType.getAssetMap();
-                    int statIndex = assetMap.getIndex(attribute);
+                    int statIndex = resolveStatIndex();
 
-                    if (statIndex >= 0) {
+                    if (statIndex != StatIndices.MISSING) {
                         // Create modifier based on operation
                         var calculationType = switch (operation) {
                             case ADD -> com.hypixel.hytale.server.core.modules.entitystats.modifier.StaticModifier.CalculationType.ADDITIVE;
@@ -109,6 +113,18 @@ public class AttributeModifierPower extends Power {
         }
     }
 
+    /**
+     * Get the index of the modified stat, re-resolving it after a stat asset reload.
+     */
+    private int resolveStatIndex() {
+        int generation = StatIndices.getGeneration();
+        if (statIndexGeneration != generation || statIndex == StatIndices.MISSING) {
+            statIndex = StatIndices.indexOf(attribute);
+            statIndexGeneration = generation;
+        }
+        return statIndex;
+    }
+
     /**
      * Remove the attribute modifier.
      */
@@ -128,10 +144,9 @@ public class AttributeModifierPower extends Power {
 
                 if (statMap != null) {
                     // Get the stat index
-                    var assetMap = com.hypixel.hytale.server.core.modules.entitystats.asset.EntityStatType.getAssetMap();
-                    int statIndex = assetMap.getIndex(attribute);
+                    int statIndex = resolveStatIndex();
 
-                    if (statIndex >= 0) {
+                    if (statIndex != StatIndices.MISSING) {
                         // Remove the modifier
                         var modifierKey = "aspectral_" + getType().getIdentifier();
                         statMap.removeModifier(statIndex, modifierKey);
@@ -158,13 +173,16 @@ public class AttributeModifierPower extends Power {
         json.addProperty("attribute", attribute);
         json.addProperty("modifier", modifier);
         json.addProperty("operation", operation.name());
-        json.addProperty("applied", applied);
         return json;
     }
 
     @Override
-    public void fromJson(JsonObject json) {
-        super.fromJson(json);
+    public void writeState(JsonObject json) {
+        json.addProperty("applied", applied);
+    }
+
+    @Override
+    public void readState(JsonObject json) {
         if (json.has("applied")) {
             this.applied = json.get("applied").getAsBoolean();
         }
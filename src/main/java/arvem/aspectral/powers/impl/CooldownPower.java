@@ -7,83 +7,76 @@ import arvem.aspectral.powers.factory.PowerFactory;
 import arvem.aspectral.api.LivingEntity;
 import arvem.aspectral.data.SerializableData;
 import arvem.aspectral.data.SerializableDataTypes;
+import arvem.aspectral.util.Cooldown;
 import com.google.gson.JsonObject;
 
 /**
  * An power with a cooldown that must expire before it can be used again.
+ * The cooldown is tracked by expiry tick, so this power never ticks.
  */
 public class CooldownPower extends Power {
 
-    private final int cooldownDuration;
-    private int cooldownRemaining = 0;
+    private final Cooldown cooldown;
 
     public CooldownPower(PowerType<?> type, LivingEntity entity, int cooldownDuration) {
         super(type, entity);
-        this.cooldownDuration = cooldownDuration;
-        setTicking();
+        this.cooldown = new Cooldown(cooldownDuration);
     }
 
     /**
      * Check if the power is ready to use (not on cooldown).
      */
     public boolean isReady() {
-        return cooldownRemaining <= 0;
+        return cooldown.isReady();
     }
 
     /**
      * Get the remaining cooldown in ticks.
      */
     public int getRemainingCooldown() {
-        return cooldownRemaining;
+        return cooldown.getRemainingTicks();
     }
 
     /**
      * Get the progress of the cooldown (0.0 = just started, 1.0 = ready).
      */
     public float getCooldownProgress() {
-        if (cooldownDuration <= 0) return 1.0f;
-        return 1.0f - ((float) cooldownRemaining / cooldownDuration);
+        return cooldown.getProgress();
     }
 
     /**
      * Trigger the cooldown.
      */
     public void use() {
-        cooldownRemaining = cooldownDuration;
+        cooldown.trigger();
+        markDirty();
     }
 
     /**
      * Reset the cooldown (make ready immediately).
      */
     public void reset() {
-        cooldownRemaining = 0;
+        cooldown.reset();
+        markDirty();
     }
 
     /**
      * Modify the remaining cooldown.
      */
     public void modifyCooldown(int ticks) {
-        cooldownRemaining = Math.max(0, cooldownRemaining + ticks);
+        cooldown.modify(ticks);
+        markDirty();
     }
 
     @Override
-    public void tick() {
-        if (cooldownRemaining > 0) {
-            cooldownRemaining--;
-        }
-    }
-
-    @Override
-    public JsonObject toJson() {
-        JsonObject json = super.toJson();
-        json.addProperty("cooldown_remaining", cooldownRemaining);
-        return json;
+    public void writeState(JsonObject json) {
+        json.addProperty("cooldown_remaining", cooldown.getRemainingTicks());
     }
 
     @Override
-    public void fromJson(JsonObject json) {
+    public void readState(JsonObject json) {
         if (json.has("cooldown_remaining")) {
-            cooldownRemaining = json.get("cooldown_remaining").getAsInt();
+            cooldown.trigger(json.get("cooldown_remaining").getAsInt());
         }
     }
 
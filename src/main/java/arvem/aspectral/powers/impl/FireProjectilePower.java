@@ -8,6 +8,7 @@ import arvem.aspectral.powers.factory.PowerFactory;
 import arvem.aspectral.api.LivingEntity;
 import arvem.aspectral.data.SerializableData;
 import arvem.aspectral.data.SerializableDataTypes;
+import arvem.aspectral.util.Cooldown;
 
 /**
  * Power that fires a projectile when activated.
@@ -18,10 +19,9 @@ public class FireProjectilePower extends Power implements Activatable {
     private final float speed;
     private final float divergence;
     private final int count;
-    private final int cooldown;
     private final String keyBinding;
 
-    private int cooldownRemaining = 0;
+    private final Cooldown cooldownTimer;
 
     public FireProjectilePower(PowerType<?> type, LivingEntity entity,
                                String projectileType, float speed, float divergence,
@@ -31,24 +31,17 @@ public class FireProjectilePower extends Power implements Activatable {
         this.speed = speed;
         this.divergence = divergence;
         this.count = count;
-        this.cooldown = cooldown;
+        this.cooldownTimer = new Cooldown(cooldown);
         this.keyBinding = keyBinding;
-
-        if (cooldown > 0) setTicking();
-    }
-
-    @Override
-    public void tick() {
-        if (cooldownRemaining > 0) cooldownRemaining--;
     }
 
     @Override
     public void onActivate() {
         if (!isActive()) return;
-        if (cooldownRemaining > 0) return;
+        if (!cooldownTimer.isReady()) return;
 
         fireProjectiles();
-        cooldownRemaining = cooldown;
+        cooldownTimer.trigger();
     }
 
     private void fireProjectiles() {
@@ -30,18 +30,6 @@ public class LaunchPower extends Power {
         this.strength = strength;
         this.key = key;
         this.cooldown = new Cooldown(cooldownTicks);
-
-        setTicking(); // Mark as needing tick updates for cooldown
-    }
-
-    @Override
-    public boolean shouldTick() {
-        return !cooldown.isReady();
-    }
-
-    @Override
-    public void tick() {
-        cooldown.tick();
     }
 
     @Override
@@ -69,6 +57,7 @@ public class LaunchPower extends Power {
 
                         // Trigger cooldown
                         cooldown.trigger();
+                        markDirty();
 
                         AspectPowers.getLogger().atInfo().log(
                             "Player %s launched with strength %.2f (cooldown: %ds)",
@@ -93,13 +82,16 @@ public class LaunchPower extends Power {
         json.addProperty("strength", strength);
         json.addProperty("cooldown", cooldown.getMaxTicks());
         json.addProperty("key", key);
-        json.add("cooldown_state", cooldown.toJson());
         return json;
     }
 
     @Override
-    public void fromJson(JsonObject json) {
-        super.fromJson(json);
+    public void writeState(JsonObject json) {
+        json.add("cooldown_state", cooldown.toJson());
+    }
+
+    @Override
+    public void readState(JsonObject json) {
         if (json.has("cooldown_state")) {
             cooldown.fromJson(json.getAsJsonObject("cooldown_state"));
         }
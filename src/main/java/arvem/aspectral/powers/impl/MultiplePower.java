@@ -16,6 +16,10 @@ import java.util.List;
 /**
  * An power that contains multiple sub-powers.
  * Useful for grouping related powers together.
+ * <p>
+ * Sub-powers are scheduled on the holder's ticker directly, so each one
+ * wakes and sleeps on its own instead of being polled through this power.
+ * They are only ticked while this power's conditions pass.
  */
 public class MultiplePower extends Power {
 
@@ -40,6 +44,7 @@ public class MultiplePower extends Power {
         for (PowerType<?> subType : subPowerTypes) {
             Power subPower = subType.create(entity);
             subAbilities.add(subPower);
+            attachSubPower(subPower);
             subPower.onGained();
         }
     }
@@ -48,6 +53,7 @@ public class MultiplePower extends Power {
     public void onLost() {
         for (Power subPower : subAbilities) {
             subPower.onLost();
+            detachSubPower(subPower);
         }
         subAbilities.clear();
     }
@@ -73,22 +79,6 @@ public class MultiplePower extends Power {
         }
     }
 
-    @Override
-    public void tick() {
-        for (Power subPower : subAbilities) {
-            if (subPower.shouldTick()) {
-                if (subPower.shouldTickWhenInactive() || subPower.isActive()) {
-                    subPower.tick();
-                }
-            }
-        }
-    }
-
-    @Override
-    public boolean shouldTick() {
-        return subAbilities.stream().anyMatch(Power::shouldTick);
-    }
-
     public List<Power> getSubAbilities() {
         return subAbilities;
     }
@@ -104,6 +94,16 @@ public class MultiplePower extends Power {
         return result;
     }
 
+    @Override
+    public void invalidateActiveState() {
+        super.invalidateActiveState();
+        if (subAbilities != null) {
+            for (Power subPower : subAbilities) {
+                subPower.invalidateActiveState();
+            }
+        }
+    }
+
     public static PowerFactory<MultiplePower> createFactory() {
         return new PowerFactory<MultiplePower>(
             AspectPowers.identifier("multiple"),
@@ -34,7 +34,7 @@ public class PreventDeathPower extends Power {
         if (!isActive()) return false;
 
         if (action != null) {
-            action.accept(entity);
+            runAction(action, entity);
         }
 
         // Set health to minimum
@@ -42,7 +42,12 @@ public class ResourcePower extends Power {
     }
 
     public void setValue(int value) {
-        this.value = Math.max(minValue, Math.min(maxValue, value));
+        int clamped = Math.max(minValue, Math.min(maxValue, value));
+        if (clamped != this.value) {
+            this.value = clamped;
+            invalidateHolderActiveStates();
+            markDirty();
+        }
     }
 
     public void change(int amount) {
@@ -79,16 +84,15 @@ public class ResourcePower extends Power {
     }
 
     @Override
-    public JsonObject toJson() {
-        JsonObject json = super.toJson();
+    public void writeState(JsonObject json) {
         json.addProperty("value", value);
-        return json;
     }
 
     @Override
-    public void fromJson(JsonObject json) {
+    public void readState(JsonObject json) {
         if (json.has("value")) {
-            value = json.get("value").getAsInt();
+            // The range may have changed since the value was saved, e.g. by a reload
+            value = Math.max(minValue, Math.min(maxValue, json.get("value").getAsInt()));
         }
     }
 
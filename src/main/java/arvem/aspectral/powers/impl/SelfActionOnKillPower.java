@@ -32,7 +32,7 @@ public class SelfActionOnKillPower extends Power {
         if (targetCondition != null && !targetCondition.test(target)) return;
 
         if (action != null) {
-            action.accept(entity);
+            runAction(action, entity);
         }
     }
 
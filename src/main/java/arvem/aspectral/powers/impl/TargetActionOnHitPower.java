@@ -8,6 +8,7 @@ import arvem.aspectral.api.LivingEntity;
 import arvem.aspectral.data.AspectPowersDataTypes;
 import arvem.aspectral.data.SerializableData;
 import arvem.aspectral.data.SerializableDataTypes;
+import arvem.aspectral.util.Cooldown;
 
 import java.util.function.Consumer;
 import java.util.function.Predicate;
@@ -19,8 +20,7 @@ public class TargetActionOnHitPower extends Power {
 
     private final Consumer<LivingEntity> action;
     private final Predicate<LivingEntity> targetCondition;
-    private final int cooldown;
-    private int cooldownRemaining = 0;
+    private final Cooldown cooldownTimer;
 
     public TargetActionOnHitPower(PowerType<TargetActionOnHitPower> type, LivingEntity entity,
                                   Consumer<LivingEntity> action,
@@ -29,24 +29,18 @@ public class TargetActionOnHitPower extends Power {
         super(type, entity);
         this.action = action;
         this.targetCondition = targetCondition;
-        this.cooldown = cooldown;
-        if (cooldown > 0) setTicking();
-    }
-
-    @Override
-    public void tick() {
-        if (cooldownRemaining > 0) cooldownRemaining--;
+        this.cooldownTimer = new Cooldown(cooldown);
     }
 
     public void onHit(LivingEntity target) {
         if (!isActive()) return;
-        if (cooldownRemaining > 0) return;
+        if (!cooldownTimer.isReady()) return;
         if (targetCondition != null && !targetCondition.test(target)) return;
 
         if (action != null) {
-            action.accept(target);
+            runAction(action, target);
         }
-        cooldownRemaining = cooldown;
+        cooldownTimer.trigger();
     }
 
     public static PowerFactory<TargetActionOnHitPower> createFactory() {
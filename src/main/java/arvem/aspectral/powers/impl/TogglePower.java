@@ -29,10 +29,16 @@ public class TogglePower extends Power {
 
     public void toggle() {
         toggled = !toggled;
+        invalidateHolderActiveStates();
+        markDirty();
     }
 
     public void setToggled(boolean value) {
-        toggled = value;
+        if (toggled != value) {
+            toggled = value;
+            invalidateHolderActiveStates();
+            markDirty();
+        }
     }
 
     @Override
@@ -49,14 +55,12 @@ public class TogglePower extends Power {
     }
 
     @Override
-    public JsonObject toJson() {
-        JsonObject json = super.toJson();
+    public void writeState(JsonObject json) {
         json.addProperty("toggled", toggled);
-        return json;
     }
 
     @Override
-    public void fromJson(JsonObject json) {
+    public void readState(JsonObject json) {
         if (json.has("toggled")) {
             toggled = json.get("toggled").getAsBoolean();
         }
@@ -0,0 +1,325 @@
+package arvem.aspectral.util;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.locks.StampedLock;
+import java.util.function.Supplier;
+
+/**
+ * Open-addressing hash map keyed on a pair of longs, e.g. the two halves of a UUID.
+ * <p>
+ * Lookups allocate nothing: keys are stored in parallel primitive arrays and probed
+ * linearly. Reads are lock-free in the common case through an optimistic
+ * {@link StampedLock} read that falls back to a shared lock if a write raced with it.
+ * Writes are serialized, which suits maps that are read far more often than written.
+ * Null values are not supported.
+ *
+ * @param <V> The value type
+ */
+public class ConcurrentLongPairMap<V> {
+
+    private static final int DEFAULT_CAPACITY = 64;
+    // Resize when more than 3/4 of the slots are used
+    private static final int LOAD_FACTOR_SHIFT = 2;
+
+    private final StampedLock lock = new StampedLock();
+
+    // A slot is occupied when its value is non-null
+    private long[] highKeys;
+    private long[] lowKeys;
+    private Object[] values;
+    private int size;
+
+    public ConcurrentLongPairMap() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * @param expectedSize Number of entries to size the table for
+     */
+    public ConcurrentLongPairMap(int expectedSize) {
+        int capacity = Integer.highestOneBit(Math.max(16, expectedSize + (expectedSize >> 1)) - 1) << 1;
+        allocate(capacity);
+    }
+
+    /**
+     * Get the value for a key, or null if absent.
+     */
+    public V get(long high, long low) {
+        long stamp = lock.tryOptimisticRead();
+        if (stamp != 0) {
+            V value = find(high, low);
+            if (lock.validate(stamp)) {
+                return value;
+            }
+        }
+        stamp = lock.readLock();
+        try {
+            return find(high, low);
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    /**
+     * Check if a key is present.
+     */
+    public boolean containsKey(long high, long low) {
+        return get(high, low) != null;
+    }
+
+    /**
+     * Associate a value with a key.
+     *
+     * @return The previous value, or null if there was none
+     */
+    public V put(long high, long low, V value) {
+        if (value == null) {
+            throw new IllegalArgumentException("Null values are not supported");
+        }
+        long stamp = lock.writeLock();
+        try {
+            return insert(high, low, value);
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * Get the value for a key, creating it if absent.
+     * The supplier runs under the write lock and must not access this map.
+     */
+    public V computeIfAbsent(long high, long low, Supplier<? extends V> supplier) {
+        V existing = get(high, low);
+        if (existing != null) {
+            return existing;
+        }
+        long stamp = lock.writeLock();
+        try {
+            existing = find(high, low);
+            if (existing != null) {
+                return existing;
+            }
+            V created = supplier.get();
+            if (created != null) {
+                insert(high, low, created);
+            }
+            return created;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * Remove the value for a key.
+     *
+     * @return The removed value, or null if there was none
+     */
+    public V remove(long high, long low) {
+        long stamp = lock.writeLock();
+        try {
+            int mask = values.length - 1;
+            int slot = indexFor(high, low, mask);
+            while (values[slot] != null) {
+                if (highKeys[slot] == high && lowKeys[slot] == low) {
+                    @SuppressWarnings("unchecked")
+                    V removed = (V) values[slot];
+                    deleteSlot(slot, mask);
+                    size--;
+                    return removed;
+                }
+                slot = (slot + 1) & mask;
+            }
+            return null;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * Remove a key only if it is mapped to the given value.
+     *
+     * @return True if the entry was removed
+     */
+    public boolean remove(long high, long low, V value) {
+        long stamp = lock.writeLock();
+        try {
+            int mask = values.length - 1;
+            int slot = indexFor(high, low, mask);
+            while (values[slot] != null) {
+                if (highKeys[slot] == high && lowKeys[slot] == low) {
+                    if (values[slot] != value) {
+                        return false;
+                    }
+                    deleteSlot(slot, mask);
+                    size--;
+                    return true;
+                }
+                slot = (slot + 1) & mask;
+            }
+            return false;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * Remove all entries.
+     */
+    public void clear() {
+        long stamp = lock.writeLock();
+        try {
+            allocate(DEFAULT_CAPACITY);
+            size = 0;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * Get the number of entries.
+     */
+    public int size() {
+        long stamp = lock.tryOptimisticRead();
+        int result = size;
+        if (!lock.validate(stamp)) {
+            stamp = lock.readLock();
+            try {
+                result = size;
+            } finally {
+                lock.unlockRead(stamp);
+            }
+        }
+        return result;
+    }
+
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    /**
+     * Get a snapshot of all values.
+     */
+    @SuppressWarnings("unchecked")
+    public List<V> values() {
+        long stamp = lock.readLock();
+        try {
+            List<V> result = new ArrayList<>(size);
+            for (Object value : values) {
+                if (value != null) {
+                    result.add((V) value);
+                }
+            }
+            return result;
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    // ========================================
+    // Internals
+    // ========================================
+
+    /**
+     * Probe for a key. Safe to run without the lock: a racing write may make the
+     * result wrong, but the probe always terminates and the caller validates it.
+     */
+    @SuppressWarnings("unchecked")
+    private V find(long high, long low) {
+        long[] highs = highKeys;
+        long[] lows = lowKeys;
+        Object[] vals = values;
+        int mask = vals.length - 1;
+        if (highs.length != vals.length || lows.length != vals.length) {
+            return null; // Caught mid-resize; validation will fail
+        }
+        int slot = indexFor(high, low, mask);
+        for (int probes = 0; probes <= mask; probes++) {
+            Object value = vals[slot];
+            if (value == null) {
+                return null;
+            }
+            if (highs[slot] == high && lows[slot] == low) {
+                return (V) value;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return null;
+    }
+
+    @SuppressWarnings("unchecked")
+    private V insert(long high, long low, V value) {
+        int mask = values.length - 1;
+        int slot = indexFor(high, low, mask);
+        while (values[slot] != null) {
+            if (highKeys[slot] == high && lowKeys[slot] == low) {
+                V previous = (V) values[slot];
+                values[slot] = value;
+                return previous;
+            }
+            slot = (slot + 1) & mask;
+        }
+        highKeys[slot] = high;
+        lowKeys[slot] = low;
+        values[slot] = value;
+        size++;
+        if (size > values.length - (values.length >> LOAD_FACTOR_SHIFT)) {
+            resize(values.length << 1);
+        }
+        return null;
+    }
+
+    /**
+     * Empty a slot and shift later entries of the same probe run back,
+     * so lookups never need tombstones.
+     */
+    private void deleteSlot(int slot, int mask) {
+        int gap = slot;
+        int next = (slot + 1) & mask;
+        while (values[next] != null) {
+            int home = indexFor(highKeys[next], lowKeys[next], mask);
+            // Move the entry into the gap if its home slot is not between the gap and its position
+            if (((next - home) & mask) >= ((next - gap) & mask)) {
+                highKeys[gap] = highKeys[next];
+                lowKeys[gap] = lowKeys[next];
+                values[gap] = values[next];
+                gap = next;
+            }
+            next = (next + 1) & mask;
+        }
+        values[gap] = null;
+    }
+
+    private void resize(int capacity) {
+        long[] oldHighs = highKeys;
+        long[] oldLows = lowKeys;
+        Object[] oldValues = values;
+        allocate(capacity);
+        int mask = capacity - 1;
+        for (int i = 0; i < oldValues.length; i++) {
+            if (oldValues[i] != null) {
+                int slot = indexFor(oldHighs[i], oldLows[i], mask);
+                while (values[slot] != null) {
+                    slot = (slot + 1) & mask;
+                }
+                highKeys[slot] = oldHighs[i];
+                lowKeys[slot] = oldLows[i];
+                values[slot] = oldValues[i];
+            }
+        }
+    }
+
+    private void allocate(int capacity) {
+        highKeys = new long[capacity];
+        lowKeys = new long[capacity];
+        values = new Object[capacity];
+    }
+
+    private static int indexFor(long high, long low, int mask) {
+        long hash = high * 0x9E3779B97F4A7C15L ^ low;
+        hash ^= hash >>> 33;
+        hash *= 0xFF51AFD7ED558CCDL;
+        hash ^= hash >>> 33;
+        return (int) hash & mask;
+    }
+}
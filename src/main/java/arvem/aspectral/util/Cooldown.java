@@ -1,15 +1,20 @@
 package arvem.aspectral.util;
 
+import arvem.aspectral.AspectPowers;
 import com.google.gson.JsonObject;
 
 /**
  * Helper class for tracking power cooldowns.
- * Counts down in ticks (20 ticks = 1 second).
+ * Measured in ticks (20 ticks = 1 second).
+ * <p>
+ * Only the tick the cooldown expires on is stored, measured against
+ * {@link AspectPowers#getCurrentTick()}. Nothing needs to tick a cooldown,
+ * and every query is answered from the current tick.
  */
 public class Cooldown {
 
     private final int maxTicks;
-    private int remainingTicks;
+    private long expiryTick;
 
     /**
      * Create a cooldown with the specified duration.
@@ -17,44 +22,67 @@ public class Cooldown {
      */
     public Cooldown(int ticks) {
         this.maxTicks = ticks;
-        this.remainingTicks = 0;
+        this.expiryTick = 0;
     }
 
     /**
      * Check if the cooldown is ready (not active).
      */
     public boolean isReady() {
-        return remainingTicks <= 0;
+        return AspectPowers.getCurrentTick() >= expiryTick;
     }
 
     /**
      * Trigger the cooldown (start counting down from max).
      */
     public void trigger() {
-        remainingTicks = maxTicks;
+        trigger(maxTicks);
     }
 
     /**
-     * Tick the cooldown down by one.
+     * Trigger the cooldown with a custom duration.
+     * @param ticks Duration in ticks
      */
-    public void tick() {
-        if (remainingTicks > 0) {
-            remainingTicks--;
-        }
+    public void trigger(int ticks) {
+        expiryTick = AspectPowers.getCurrentTick() + Math.max(0, ticks);
+    }
+
+    /**
+     * Add to (or subtract from) the remaining duration.
+     * The remaining duration never drops below zero.
+     */
+    public void modify(int ticks) {
+        trigger((int) Math.min(Integer.MAX_VALUE, getRemainingTicks() + (long) ticks));
     }
 
     /**
      * Get remaining ticks.
      */
     public int getRemainingTicks() {
-        return remainingTicks;
+        long remaining = expiryTick - AspectPowers.getCurrentTick();
+        return remaining > 0 ? (int) remaining : 0;
     }
 
     /**
      * Get remaining seconds (rounded up).
      */
     public int getRemainingSeconds() {
-        return (remainingTicks + 19) / 20; // Round up
+        return (getRemainingTicks() + 19) / 20; // Round up
+    }
+
+    /**
+     * Get the progress of the cooldown (0.0 = just started, 1.0 = ready).
+     */
+    public float getProgress() {
+        if (maxTicks <= 0) return 1.0f;
+        return Math.max(0.0f, 1.0f - ((float) getRemainingTicks() / maxTicks));
+    }
+
+    /**
+     * Get the tick this cooldown expires on.
+     */
+    public long getExpiryTick() {
+        return expiryTick;
     }
 
     /**
@@ -68,16 +96,18 @@ public class Cooldown {
      * Reset the cooldown (make it ready immediately).
      */
     public void reset() {
-        remainingTicks = 0;
+        expiryTick = 0;
     }
 
     /**
      * Serialize to JSON.
+     * The remaining duration is stored rather than the expiry tick,
+     * since the tick counter restarts with the server.
      */
     public JsonObject toJson() {
         JsonObject json = new JsonObject();
         json.addProperty("max", maxTicks);
-        json.addProperty("remaining", remainingTicks);
+        json.addProperty("remaining", getRemainingTicks());
         return json;
     }
 
@@ -86,8 +116,7 @@ public class Cooldown {
      */
     public void fromJson(JsonObject json) {
         if (json.has("remaining")) {
-            remainingTicks = json.get("remaining").getAsInt();
+            trigger(json.get("remaining").getAsInt());
         }
     }
 }
-
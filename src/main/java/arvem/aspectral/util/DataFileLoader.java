@@ -0,0 +1,206 @@
+package arvem.aspectral.util;
+
+import arvem.aspectral.data.SerializableData;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import com.hypixel.hytale.logger.HytaleLogger;
+
+import javax.annotation.Nullable;
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Parses the JSON files of a data directory in parallel.
+ * <p>
+ * Every file is read and parsed on its own virtual thread, with the namespace and
+ * path of the file set as the {@link SerializableData} context of that thread.
+ * Results come back in the sorted order of the files, so whatever the loader
+ * registers afterwards is registered in the same order on every start, no matter
+ * which parse finished first. Failures are collected rather than thrown, so one
+ * broken file never stops the rest from loading.
+ * <p>
+ * File contents come from the directory's {@link DataSnapshot} when nothing in
+ * the directory changed since it was written, and a new snapshot is written
+ * whenever the files had to be read.
+ */
+public final class DataFileLoader {
+
+    private static final HytaleLogger LOGGER = HytaleLogger.forEnclosingClass();
+
+    private static final String EXTENSION = ".json";
+
+    /**
+     * Turns one parsed file into the value a loader registers.
+     */
+    @FunctionalInterface
+    public interface Parser<T> {
+        /**
+         * @param file The file being parsed
+         * @param json Its contents
+         * @return The parsed value, or null to skip the file
+         */
+        @Nullable
+        T parse(Path file, JsonObject json) throws Exception;
+    }
+
+    /**
+     * A file that was parsed successfully.
+     */
+    public record Loaded<T>(Path file, T value) {
+    }
+
+    /**
+     * A file that failed to parse.
+     */
+    public record Failure(Path file, Throwable cause) {
+    }
+
+    /**
+     * Everything parsed from a directory, in file order.
+     *
+     * @param files Number of files found
+     * @param loaded Files that produced a value
+     * @param failures Files that failed to parse
+     */
+    public record Result<T>(int files, List<Loaded<T>> loaded, List<Failure> failures) {
+    }
+
+    /**
+     * An entry of a registry that a reload added, replaced or removed.
+     *
+     * @param id ID of the entry
+     * @param previous The entry before the reload, or null if it is new
+     * @param current The entry after the reload, or null if it was removed
+     */
+    public record Change<T>(String id, @Nullable T previous, @Nullable T current) {
+    }
+
+    private DataFileLoader() {
+    }
+
+    /**
+     * Parse every JSON file in a directory in parallel.
+     *
+     * @param directory Directory to read
+     * @param maxDepth How deep to look into subdirectories; 1 for the directory itself only
+     * @param namespace Namespace the files are read in, used to resolve {@code *:} identifiers
+     * @param parser Turns each file into a value
+     */
+    public static <T> Result<T> parseAll(Path directory, int maxDepth, String namespace, Parser<T> parser) throws IOException {
+        List<Path> files;
+        try (Stream<Path> paths = Files.walk(directory, maxDepth)) {
+            files = paths
+                .filter(path -> Files.isRegularFile(path) && isDataFile(path))
+                .sorted()
+                .toList();
+        }
+
+        // Unchanged directories are read from the snapshot of their last load instead of file by file
+        String fingerprint = DataSnapshot.fingerprint(directory, files);
+        Map<String, JsonObject> snapshot = DataSnapshot.read(directory, fingerprint);
+        Map<String, JsonObject> contents = new ConcurrentHashMap<>();
+
+        Result<T> result = parse(directory, files, namespace, parser, snapshot, contents);
+
+        if (snapshot != null) {
+            LOGGER.atInfo().log("Read %d file(s) of %s from snapshot", snapshot.size(), directory.getFileName());
+        } else {
+            DataSnapshot.write(directory, fingerprint, contents);
+        }
+        return result;
+    }
+
+    /**
+     * Parse some of the JSON files of a directory in parallel, such as the ones that changed since it was loaded.
+     *
+     * @param directory Directory the files are in
+     * @param files The files to parse; ones that no longer exist are reported as failures
+     * @param namespace Namespace the files are read in, used to resolve {@code *:} identifiers
+     * @param parser Turns each file into a value
+     */
+    public static <T> Result<T> parseFiles(Path directory, List<Path> files, String namespace, Parser<T> parser) throws IOException {
+        List<Path> sorted = files.stream().sorted().toList();
+        return parse(directory, sorted, namespace, parser, null, new ConcurrentHashMap<>());
+    }
+
+    /**
+     * Check if a path names a data file.
+     */
+    public static boolean isDataFile(Path path) {
+        return path.toString().endsWith(EXTENSION);
+    }
+
+    private static <T> Result<T> parse(Path directory, List<Path> files, String namespace, Parser<T> parser,
+                                       @Nullable Map<String, JsonObject> snapshot, Map<String, JsonObject> contents) throws IOException {
+        List<Future<T>> futures = new ArrayList<>(files.size());
+        try (ExecutorService executor = Executors.newThreadPerTaskExecutor(
+                Thread.ofVirtual().name("aspectral-data-loader-", 0).factory())) {
+            for (Path file : files) {
+                String path = getPath(directory, file);
+                futures.add(executor.submit(() -> SerializableData.withContext(namespace, path, () -> {
+                    JsonObject json = snapshot != null ? snapshot.get(path) : null;
+                    if (json == null) {
+                        try (Reader reader = Files.newBufferedReader(file)) {
+                            json = JsonParser.parseReader(reader).getAsJsonObject();
+                        }
+                    }
+                    contents.put(path, json);
+                    return parser.parse(file, json);
+                })));
+            }
+        }
+
+        List<Loaded<T>> loaded = new ArrayList<>(files.size());
+        List<Failure> failures = new ArrayList<>();
+        for (int i = 0; i < files.size(); i++) {
+            try {
+                T value = futures.get(i).get();
+                if (value != null) {
+                    loaded.add(new Loaded<>(files.get(i), value));
+                }
+            } catch (ExecutionException e) {
+                failures.add(new Failure(files.get(i), e.getCause()));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException("Interrupted while loading " + directory, e);
+            }
+        }
+        return new Result<>(files.size(), loaded, failures);
+    }
+
+    /**
+     * Log every failure of a load, followed by one summary line naming all failed files.
+     *
+     * @param kind What the files hold, such as "power"
+     */
+    public static void logFailures(HytaleLogger logger, String kind, List<Failure> failures) {
+        if (failures.isEmpty()) {
+            return;
+        }
+        for (Failure failure : failures) {
+            logger.atSevere().withCause(failure.cause()).log("Failed to load %s from: %s", kind, failure.file().getFileName());
+        }
+        logger.atSevere().log("Failed to load %d %s file(s): %s", failures.size(), kind,
+            failures.stream().map(failure -> failure.file().getFileName().toString()).collect(Collectors.joining(", ")));
+    }
+
+    /**
+     * Get the path of a file relative to the data directory, without its extension.
+     */
+    private static String getPath(Path directory, Path file) {
+        String path = directory.relativize(file).toString().replace('\\', '/');
+        return path.substring(0, path.length() - EXTENSION.length());
+    }
+}
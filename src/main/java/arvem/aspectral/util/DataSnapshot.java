@@ -0,0 +1,131 @@
+package arvem.aspectral.util;
+
+import arvem.aspectral.persistence.PlayerSaveFormat;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.hypixel.hytale.logger.HytaleLogger;
+
+import javax.annotation.Nullable;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Binary snapshot of the parsed JSON files of a data directory.
+ * <p>
+ * After a directory was loaded, the JSON tree of every file is written to one
+ * snapshot file in the {@link PlayerSaveFormat} encoding, keyed by a fingerprint
+ * of the directory. On the next start, a snapshot with a matching fingerprint
+ * replaces opening and parsing every file; any mismatch falls back to the files.
+ * <p>
+ * The fingerprint is a hash of the path and contents of every file, so any edit
+ * is noticed, however quickly it follows the last one. Reading the bytes is cheap
+ * next to parsing them, which is what the snapshot saves. The snapshot holds file contents only, never parsed factory data, so it stays
+ * valid across plugin updates that change how powers are read.
+ */
+public final class DataSnapshot {
+
+    private static final HytaleLogger LOGGER = HytaleLogger.forEnclosingClass();
+
+    private static final String EXTENSION = ".snapshot";
+
+    private static final String FINGERPRINT_KEY = "fingerprint";
+    private static final String FILES_KEY = "files";
+
+    private DataSnapshot() {
+    }
+
+    /**
+     * Get the snapshot file of a data directory, stored next to it.
+     */
+    public static Path getSnapshotFile(Path directory) {
+        return directory.resolveSibling(directory.getFileName() + EXTENSION);
+    }
+
+    /**
+     * Compute the fingerprint of a directory from the contents of its files.
+     *
+     * @param directory The data directory
+     * @param files Its files, in a stable order
+     */
+    public static String fingerprint(Path directory, List<Path> files) throws IOException {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+        for (Path file : files) {
+            byte[] content = Files.readAllBytes(file);
+            // Length-prefixed, so no two listings hash the same bytes
+            String entry = directory.relativize(file) + "\0" + content.length + "\0";
+            digest.update(entry.getBytes(StandardCharsets.UTF_8));
+            digest.update(content);
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    /**
+     * Read the snapshot of a directory, if it matches the fingerprint.
+     *
+     * @return The JSON of every file by its path relative to the directory, or null if there is no usable snapshot
+     */
+    @Nullable
+    public static Map<String, JsonObject> read(Path directory, String fingerprint) {
+        Path file = getSnapshotFile(directory);
+        if (!Files.exists(file)) {
+            return null;
+        }
+        try {
+            JsonObject snapshot = PlayerSaveFormat.decode(Files.readAllBytes(file));
+            if (!snapshot.has(FINGERPRINT_KEY) || !fingerprint.equals(snapshot.get(FINGERPRINT_KEY).getAsString())) {
+                return null;
+            }
+
+            JsonObject files = snapshot.getAsJsonObject(FILES_KEY);
+            Map<String, JsonObject> contents = new HashMap<>(files.size() * 2);
+            for (Map.Entry<String, JsonElement> entry : files.entrySet()) {
+                contents.put(entry.getKey(), entry.getValue().getAsJsonObject());
+            }
+            return contents;
+        } catch (Exception e) {
+            LOGGER.atWarning().log("Ignoring unreadable data snapshot %s: %s", file.getFileName(), e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Replace the snapshot of a directory.
+     *
+     * @param contents The JSON of every file by its path relative to the directory
+     */
+    public static void write(Path directory, String fingerprint, Map<String, JsonObject> contents) {
+        JsonObject files = new JsonObject();
+        contents.forEach(files::add);
+        JsonObject snapshot = new JsonObject();
+        snapshot.addProperty(FINGERPRINT_KEY, fingerprint);
+        snapshot.add(FILES_KEY, files);
+
+        Path file = getSnapshotFile(directory);
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        try {
+            Files.write(temp, PlayerSaveFormat.encode(snapshot, true));
+            try {
+                Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } catch (IOException e) {
+            LOGGER.atWarning().log("Failed to write data snapshot %s: %s", file.getFileName(), e.getMessage());
+        }
+    }
+}
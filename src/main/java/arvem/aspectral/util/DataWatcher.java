@@ -0,0 +1,164 @@
+package arvem.aspectral.util;
+
+import com.hypixel.hytale.logger.HytaleLogger;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * Watches data directories and reports which data files changed.
+ * <p>
+ * Changes are collected until the directories have been quiet for a moment, so
+ * an editor saving several files, or one file in several writes, causes a
+ * single report. Reports are delivered on the watcher's own thread, mapping each
+ * watched directory to its created, modified and deleted data files.
+ */
+public class DataWatcher implements Closeable {
+
+    private static final HytaleLogger LOGGER = HytaleLogger.forEnclosingClass();
+
+    // Changes arriving within this long of each other are reported together
+    private static final long SETTLE_MILLIS = 250;
+
+    private record Watched(Path root, Path directory, boolean recursive) {
+    }
+
+    private final WatchService service;
+    private final Map<WatchKey, Watched> keys = new HashMap<>();
+    private final Consumer<Map<Path, Set<Path>>> listener;
+    private final Thread thread;
+
+    /**
+     * @param directories The directories to watch, each with whether its subdirectories are watched too
+     * @param listener Receives the changed data files per watched directory
+     */
+    public DataWatcher(Map<Path, Boolean> directories, Consumer<Map<Path, Set<Path>>> listener) throws IOException {
+        this.service = FileSystems.getDefault().newWatchService();
+        this.listener = listener;
+        try {
+            for (Map.Entry<Path, Boolean> entry : directories.entrySet()) {
+                Files.createDirectories(entry.getKey());
+                register(entry.getKey(), entry.getKey(), entry.getValue());
+            }
+        } catch (IOException e) {
+            service.close();
+            throw e;
+        }
+        this.thread = Thread.ofPlatform().name("aspectral-data-watcher").daemon(true).unstarted(this::run);
+    }
+
+    /**
+     * Start reporting changes.
+     */
+    public void start() {
+        thread.start();
+    }
+
+    @Override
+    public void close() throws IOException {
+        service.close();
+    }
+
+    private void run() {
+        try {
+            while (true) {
+                Map<Path, Set<Path>> changes = new LinkedHashMap<>();
+                WatchKey key = service.take();
+                while (key != null) {
+                    collect(key, changes);
+                    key = service.poll(SETTLE_MILLIS, TimeUnit.MILLISECONDS);
+                }
+                if (changes.isEmpty()) {
+                    continue;
+                }
+                try {
+                    listener.accept(changes);
+                } catch (Exception e) {
+                    LOGGER.atSevere().withCause(e).log("Failed to apply changed data files");
+                }
+            }
+        } catch (ClosedWatchServiceException | InterruptedException e) {
+            // Stopped
+        }
+    }
+
+    private void collect(WatchKey key, Map<Path, Set<Path>> changes) {
+        Watched watched = keys.get(key);
+        if (watched == null) {
+            key.cancel();
+            return;
+        }
+        Set<Path> files = new HashSet<>();
+
+        for (WatchEvent<?> event : key.pollEvents()) {
+            if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                // Events were lost; report every file there is, deletions cannot be recovered
+                LOGGER.atWarning().log("Missed changes in %s, reloading all of its files", watched.directory());
+                addDataFiles(watched.directory(), watched.recursive(), files);
+                continue;
+            }
+
+            Path path = watched.directory().resolve((Path) event.context());
+            if (watched.recursive() && event.kind() == StandardWatchEventKinds.ENTRY_CREATE && Files.isDirectory(path)) {
+                // A new subdirectory, possibly moved in with files already inside
+                try {
+                    register(watched.root(), path, true);
+                } catch (IOException e) {
+                    LOGGER.atWarning().log("Failed to watch %s: %s", path, e.getMessage());
+                }
+                addDataFiles(path, true, files);
+            } else if (DataFileLoader.isDataFile(path)) {
+                files.add(path);
+            }
+        }
+
+        if (!files.isEmpty()) {
+            changes.computeIfAbsent(watched.root(), root -> new HashSet<>()).addAll(files);
+        }
+        if (!key.reset()) {
+            keys.remove(key);
+        }
+    }
+
+    private void register(Path root, Path directory, boolean recursive) throws IOException {
+        if (recursive) {
+            try (Stream<Path> paths = Files.walk(directory)) {
+                for (Path path : paths.filter(Files::isDirectory).toList()) {
+                    registerOne(root, path, true);
+                }
+            }
+        } else {
+            registerOne(root, directory, false);
+        }
+    }
+
+    private void registerOne(Path root, Path directory, boolean recursive) throws IOException {
+        WatchKey key = directory.register(service,
+            StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY, StandardWatchEventKinds.ENTRY_DELETE);
+        keys.put(key, new Watched(root, directory, recursive));
+    }
+
+    private static void addDataFiles(Path directory, boolean recursive, Set<Path> files) {
+        try (Stream<Path> paths = Files.walk(directory, recursive ? Integer.MAX_VALUE : 1)) {
+            paths.filter(path -> Files.isRegularFile(path) && DataFileLoader.isDataFile(path)).forEach(files::add);
+        } catch (IOException e) {
+            LOGGER.atWarning().log("Failed to list %s: %s", directory, e.getMessage());
+        }
+    }
+}
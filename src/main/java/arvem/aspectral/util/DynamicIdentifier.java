@@ -14,8 +14,9 @@ public class DynamicIdentifier {
     public static String of(String id, String defaultNamespace) {
         // Handle wildcard namespace replacement
         if (id.startsWith("*:")) {
-            String actualNamespace = SerializableData.CURRENT_NAMESPACE != null
-                ? SerializableData.CURRENT_NAMESPACE
+            String currentNamespace = SerializableData.getCurrentNamespace();
+            String actualNamespace = currentNamespace != null
+                ? currentNamespace
                 : defaultNamespace;
             return actualNamespace + ":" + id.substring(2);
         }
@@ -1,24 +1,72 @@
 package arvem.aspectral.util;
 
-import java.util.Iterator;
-import java.util.concurrent.ConcurrentLinkedQueue;
+import com.hypixel.hytale.logger.HytaleLogger;
+
+import javax.annotation.Nullable;
+import java.util.ArrayList;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
 
 /**
- * Simple scheduler for delayed tasks.
- * Executes tasks after a specified number of ticks.
+ * Tick-based scheduler for delayed and repeating tasks.
+ * <p>
+ * Tasks are kept in a hierarchical timing wheel: {@value #LEVELS} levels of
+ * {@value #SLOTS} slots, each level covering {@value #SLOTS} times the span of the
+ * one below. Scheduling and cancelling are O(1), and a tick only touches the slot
+ * that is due, plus an occasional cascade of a higher level slot into the lower
+ * levels. Tasks further out than the wheel can hold wait in the last slot of the
+ * top level and are re-placed every time it comes around.
+ * <p>
+ * A task runs on exactly the tick it is due, never late by scheduler ticks. Tasks
+ * can target an {@link Executor} (e.g. {@code world::execute}), in which case they
+ * are handed to it on the due tick instead of running on the ticking thread.
+ * <p>
+ * Tasks that belong to an owner (an entity, a power) should be scheduled through a
+ * {@link Scope}, so the owner can cancel all of them at once when it goes away.
  */
 public class Scheduler {
 
-    private final ConcurrentLinkedQueue<ScheduledTask> tasks = new ConcurrentLinkedQueue<>();
+    private static final HytaleLogger LOGGER = HytaleLogger.forEnclosingClass();
+
+    private static final int SLOT_BITS = 6;
+    private static final int SLOTS = 1 << SLOT_BITS;
+    private static final int SLOT_MASK = SLOTS - 1;
+    private static final int LEVELS = 4;
+    // Furthest delay the wheel holds directly
+    private static final long HORIZON = (1L << (SLOT_BITS * LEVELS)) - 1;
+
+    private final Object lock = new Object();
+
+    // Head of the task list in each slot, indexed [level][slot]
+    private final ScheduledTask[][] wheel = new ScheduledTask[LEVELS][SLOTS];
+
+    private long currentTick = 0;
+    private int pending = 0;
 
     /**
      * Schedule a task to run after a delay.
      *
      * @param task The task to run
      * @param delayTicks Number of ticks to wait
+     * @return A handle to cancel the task
+     */
+    public ScheduledTask schedule(Runnable task, int delayTicks) {
+        return schedule(task, delayTicks, null);
+    }
+
+    /**
+     * Schedule a task to run after a delay on a specific executor.
+     *
+     * @param task The task to run
+     * @param delayTicks Number of ticks to wait
+     * @param executor Executor to run the task on, or null for the ticking thread
+     * @return A handle to cancel the task
      */
-    public void schedule(Runnable task, int delayTicks) {
-        tasks.add(new ScheduledTask(task, delayTicks));
+    public ScheduledTask schedule(Runnable task, int delayTicks, @Nullable Executor executor) {
+        ScheduledTask scheduled = new ScheduledTask(this, task, 0, executor);
+        insert(scheduled, delayTicks);
+        return scheduled;
     }
 
     /**
@@ -30,42 +78,227 @@ public class Scheduler {
      * @return A handle to cancel the task
      */
     public ScheduledTask scheduleRepeating(Runnable task, int delayTicks, int periodTicks) {
-        ScheduledTask scheduled = new ScheduledTask(task, delayTicks, periodTicks);
-        tasks.add(scheduled);
+        return scheduleRepeating(task, delayTicks, periodTicks, null);
+    }
+
+    /**
+     * Schedule a repeating task on a specific executor.
+     *
+     * @param task The task to run
+     * @param delayTicks Initial delay in ticks
+     * @param periodTicks Ticks between executions
+     * @param executor Executor to run the task on, or null for the ticking thread
+     * @return A handle to cancel the task
+     */
+    public ScheduledTask scheduleRepeating(Runnable task, int delayTicks, int periodTicks, @Nullable Executor executor) {
+        ScheduledTask scheduled = new ScheduledTask(this, task, Math.max(1, periodTicks), executor);
+        insert(scheduled, delayTicks);
         return scheduled;
     }
 
+    /**
+     * Create a new task scope on this scheduler.
+     */
+    public Scope newScope() {
+        return new Scope(this, null);
+    }
+
     /**
      * Called every tick to process scheduled tasks.
      */
     public void tick() {
-        Iterator<ScheduledTask> iterator = tasks.iterator();
-        while (iterator.hasNext()) {
-            ScheduledTask task = iterator.next();
+        ScheduledTask due;
+        synchronized (lock) {
+            currentTick++;
+            cascade();
+            int slot = (int) (currentTick & SLOT_MASK);
+            due = wheel[0][slot];
+            wheel[0][slot] = null;
+            // Unhook the due tasks and queue repeating ones for their next run
+            // before running anything, so a task may cancel or reschedule freely
+            for (ScheduledTask task = due; task != null; task = task.next) {
+                task.level = -1;
+                pending--;
+            }
+        }
 
-            if (task.isCancelled()) {
-                iterator.remove();
-                continue;
+        ScheduledTask task = due;
+        while (task != null) {
+            ScheduledTask next = task.next;
+            task.next = null;
+            task.prev = null;
+            if (!task.cancelled) {
+                if (task.period > 0) {
+                    synchronized (lock) {
+                        if (!task.cancelled) {
+                            place(task, task.deadline + task.period);
+                        }
+                    }
+                } else {
+                    task.release();
+                }
+                dispatch(task);
             }
+            task = next;
+        }
+    }
 
-            task.ticksRemaining--;
+    /**
+     * Get the number of tasks waiting to run.
+     */
+    public int size() {
+        synchronized (lock) {
+            return pending;
+        }
+    }
 
-            if (task.ticksRemaining <= 0) {
-                try {
-                    task.task.run();
-                } catch (Exception e) {
-                    // Log but don't crash
-                    e.printStackTrace();
-                }
+    /**
+     * Get the scheduler's own tick count.
+     */
+    public long getCurrentTick() {
+        synchronized (lock) {
+            return currentTick;
+        }
+    }
 
-                if (task.period > 0) {
-                    // Repeating task - reset timer
-                    task.ticksRemaining = task.period;
-                } else {
-                    // One-shot task - remove
-                    iterator.remove();
+    /**
+     * Cancel every pending task.
+     */
+    public void clear() {
+        synchronized (lock) {
+            for (ScheduledTask[] level : wheel) {
+                for (int slot = 0; slot < SLOTS; slot++) {
+                    for (ScheduledTask task = level[slot]; task != null; task = task.next) {
+                        task.cancelled = true;
+                        task.level = -1;
+                        task.release();
+                    }
+                    level[slot] = null;
                 }
             }
+            pending = 0;
+        }
+    }
+
+    // ========================================
+    // Wheel internals
+    // ========================================
+
+    private void insert(ScheduledTask task, int delayTicks) {
+        synchronized (lock) {
+            // A delay of 0 still waits for the next tick, like it always has
+            place(task, currentTick + Math.max(1, delayTicks));
+        }
+    }
+
+    /**
+     * Link a task into the slot that covers its deadline. Caller holds the lock.
+     */
+    private void place(ScheduledTask task, long deadline) {
+        task.deadline = deadline;
+        long delta = deadline - currentTick;
+        long slotTick = deadline;
+        int level;
+        if (delta <= 0) {
+            // Already due; only happens while cascading into the current slot
+            level = 0;
+            slotTick = currentTick;
+        } else if (delta > HORIZON) {
+            // Park in the furthest slot and re-place when it comes around
+            level = LEVELS - 1;
+            slotTick = currentTick + HORIZON;
+        } else {
+            level = (63 - Long.numberOfLeadingZeros(delta)) / SLOT_BITS;
+        }
+        int slot = (int) ((slotTick >>> (level * SLOT_BITS)) & SLOT_MASK);
+
+        ScheduledTask head = wheel[level][slot];
+        task.prev = null;
+        task.next = head;
+        if (head != null) {
+            head.prev = task;
+        }
+        wheel[level][slot] = task;
+        task.level = level;
+        task.slot = slot;
+        pending++;
+    }
+
+    /**
+     * Unlink a task from its slot. Caller holds the lock.
+     */
+    private void unlink(ScheduledTask task) {
+        if (task.level < 0) {
+            return;
+        }
+        if (task.prev != null) {
+            task.prev.next = task.next;
+        } else {
+            wheel[task.level][task.slot] = task.next;
+        }
+        if (task.next != null) {
+            task.next.prev = task.prev;
+        }
+        task.prev = null;
+        task.next = null;
+        task.level = -1;
+        pending--;
+    }
+
+    /**
+     * Move the tasks of every higher level slot that starts at the current tick
+     * down into the lower levels, top level first. Caller holds the lock.
+     */
+    private void cascade() {
+        int top = 0;
+        for (int level = 1; level < LEVELS; level++) {
+            if ((currentTick & ((1L << (level * SLOT_BITS)) - 1)) != 0) {
+                break;
+            }
+            top = level;
+        }
+        for (int level = top; level >= 1; level--) {
+            int slot = (int) ((currentTick >>> (level * SLOT_BITS)) & SLOT_MASK);
+            ScheduledTask task = wheel[level][slot];
+            wheel[level][slot] = null;
+            while (task != null) {
+                ScheduledTask next = task.next;
+                pending--;
+                place(task, task.deadline);
+                task = next;
+            }
+        }
+    }
+
+    private void cancel(ScheduledTask task) {
+        synchronized (lock) {
+            task.cancelled = true;
+            unlink(task);
+        }
+        task.release();
+    }
+
+    private static void dispatch(ScheduledTask task) {
+        if (task.executor != null) {
+            try {
+                task.executor.execute(() -> runSafely(task));
+            } catch (Exception e) {
+                LOGGER.atWarning().withCause(e).log("Failed to hand scheduled task to its executor");
+            }
+        } else {
+            runSafely(task);
+        }
+    }
+
+    private static void runSafely(ScheduledTask task) {
+        if (task.cancelled) {
+            return;
+        }
+        try {
+            task.task.run();
+        } catch (Exception e) {
+            // Log but don't crash
+            LOGGER.atWarning().withCause(e).log("Scheduled task failed");
         }
     }
 
@@ -73,27 +306,177 @@ public class Scheduler {
      * Represents a scheduled task.
      */
     public static class ScheduledTask {
+        private final Scheduler scheduler;
         private final Runnable task;
-        private int ticksRemaining;
         private final int period;
-        private boolean cancelled = false;
+        @Nullable
+        private final Executor executor;
+        private volatile boolean cancelled = false;
+        // Scope the task belongs to, cleared once the task is done
+        @Nullable
+        private volatile Scope scope;
 
-        public ScheduledTask(Runnable task, int delay) {
-            this(task, delay, 0);
-        }
+        // Wheel position, guarded by the scheduler lock; level is -1 when not linked
+        private long deadline;
+        private int level = -1;
+        private int slot;
+        private ScheduledTask prev;
+        private ScheduledTask next;
 
-        public ScheduledTask(Runnable task, int delay, int period) {
+        private ScheduledTask(Scheduler scheduler, Runnable task, int period, @Nullable Executor executor) {
+            this.scheduler = scheduler;
             this.task = task;
-            this.ticksRemaining = delay;
             this.period = period;
+            this.executor = executor;
         }
 
+        /**
+         * Cancel the task. It is removed from the scheduler immediately.
+         */
         public void cancel() {
-            this.cancelled = true;
+            scheduler.cancel(this);
         }
 
         public boolean isCancelled() {
             return cancelled;
         }
+
+        public boolean isRepeating() {
+            return period > 0;
+        }
+
+        private void release() {
+            Scope owner = scope;
+            if (owner != null) {
+                scope = null;
+                owner.tasks.remove(this);
+            }
+        }
+    }
+
+    /**
+     * A group of tasks owned by one thing, e.g. an entity or a power.
+     * <p>
+     * Cancelling a scope cancels every task scheduled through it and through its
+     * child scopes. A closed scope also cancels anything scheduled into it later,
+     * so a late callback cannot keep a removed owner alive.
+     */
+    public static final class Scope {
+        private final Scheduler scheduler;
+        @Nullable
+        private final Scope parent;
+        private final Set<ScheduledTask> tasks = ConcurrentHashMap.newKeySet();
+        private final Set<Scope> children = ConcurrentHashMap.newKeySet();
+        private volatile boolean closed = false;
+
+        private Scope(Scheduler scheduler, @Nullable Scope parent) {
+            this.scheduler = scheduler;
+            this.parent = parent;
+        }
+
+        /**
+         * Create a child scope, cancelled along with this one.
+         */
+        public Scope newChild() {
+            Scope child = new Scope(scheduler, this);
+            children.add(child);
+            if (closed) {
+                child.close();
+            }
+            return child;
+        }
+
+        /**
+         * Schedule a task owned by this scope.
+         *
+         * @see Scheduler#schedule(Runnable, int, Executor)
+         */
+        public ScheduledTask schedule(Runnable task, int delayTicks) {
+            return schedule(task, delayTicks, null);
+        }
+
+        /**
+         * Schedule a task owned by this scope on a specific executor.
+         *
+         * @see Scheduler#schedule(Runnable, int, Executor)
+         */
+        public ScheduledTask schedule(Runnable task, int delayTicks, @Nullable Executor executor) {
+            return track(new ScheduledTask(scheduler, task, 0, executor), delayTicks);
+        }
+
+        /**
+         * Schedule a repeating task owned by this scope.
+         *
+         * @see Scheduler#scheduleRepeating(Runnable, int, int, Executor)
+         */
+        public ScheduledTask scheduleRepeating(Runnable task, int delayTicks, int periodTicks) {
+            return scheduleRepeating(task, delayTicks, periodTicks, null);
+        }
+
+        /**
+         * Schedule a repeating task owned by this scope on a specific executor.
+         *
+         * @see Scheduler#scheduleRepeating(Runnable, int, int, Executor)
+         */
+        public ScheduledTask scheduleRepeating(Runnable task, int delayTicks, int periodTicks, @Nullable Executor executor) {
+            return track(new ScheduledTask(scheduler, task, Math.max(1, periodTicks), executor), delayTicks);
+        }
+
+        /**
+         * Cancel every task in this scope and its children. The scope stays usable.
+         *
+         * @return The number of tasks cancelled
+         */
+        public int cancelAll() {
+            int cancelled = 0;
+            for (ScheduledTask task : new ArrayList<>(tasks)) {
+                task.cancel();
+                cancelled++;
+            }
+            for (Scope child : children) {
+                cancelled += child.cancelAll();
+            }
+            return cancelled;
+        }
+
+        /**
+         * Cancel every task and reject new ones. Children are closed too,
+         * and the scope detaches from its parent.
+         *
+         * @return The number of tasks cancelled
+         */
+        public int close() {
+            closed = true;
+            int cancelled = cancelAll();
+            for (Scope child : new ArrayList<>(children)) {
+                child.close();
+            }
+            if (parent != null) {
+                parent.children.remove(this);
+            }
+            return cancelled;
+        }
+
+        public boolean isClosed() {
+            return closed;
+        }
+
+        /**
+         * Get the number of pending tasks in this scope, not counting children.
+         */
+        public int size() {
+            return tasks.size();
+        }
+
+        private ScheduledTask track(ScheduledTask task, int delayTicks) {
+            task.scope = this;
+            tasks.add(task);
+            scheduler.insert(task, delayTicks);
+            // Closed while scheduling: cancel straight away
+            if (closed) {
+                task.cancel();
+            }
+            return task;
+        }
     }
 }